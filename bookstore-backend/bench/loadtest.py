@@ -0,0 +1,98 @@
+#!/usr/bin/env python3
+"""Keep-alive HTTP load generator (Python 3 standard library only).
+
+Opens --connections concurrent connections that each send GET requests back to back for
+--duration seconds, then prints throughput, latency percentiles and errors. Used to compare the
+default Tomcat thread pool with the virtual-thread profile (see README, "Virtual Threads").
+
+    python3 bench/loadtest.py --url 'http://localhost:8080/api/items?mode=slice' --connections 1000
+"""
+import argparse
+import asyncio
+import time
+from urllib.parse import urlsplit
+
+
+async def exchange(reader, writer, request):
+    writer.write(request)
+    await writer.drain()
+    status_line = await reader.readline()
+    length, chunked = 0, False
+    while True:
+        line = await reader.readline()
+        if line in (b"\r\n", b""):
+            break
+        name, _, value = line.decode("latin-1").partition(":")
+        if name.lower() == "content-length":
+            length = int(value)
+        elif name.lower() == "transfer-encoding" and "chunked" in value.lower():
+            chunked = True
+    if chunked:
+        while True:
+            size = int((await reader.readline()).split(b";")[0], 16)
+            await reader.readexactly(size + 2)
+            if size == 0:
+                break
+    elif length:
+        await reader.readexactly(length)
+    return status_line
+
+
+async def worker(host, port, request, deadline, timeout, latencies, errors):
+    reader = writer = None
+    while time.monotonic() < deadline:
+        try:
+            if writer is None:
+                reader, writer = await asyncio.wait_for(asyncio.open_connection(host, port), timeout)
+            started = time.monotonic()
+            status_line = await asyncio.wait_for(exchange(reader, writer, request), timeout)
+            if not status_line:
+                # Tomcat closes a keep-alive connection after maxKeepAliveRequests; just reconnect
+                writer.close()
+                writer = None
+                continue
+            if not status_line.startswith(b"HTTP/1.1 2"):
+                errors.append(status_line.decode("latin-1").strip())
+                writer.close()
+                writer = None
+                continue
+            latencies.append(time.monotonic() - started)
+        except (OSError, ValueError, asyncio.IncompleteReadError, asyncio.TimeoutError) as e:
+            errors.append(type(e).__name__)
+            if writer is not None:
+                writer.close()
+            writer = None
+            await asyncio.sleep(0.05)
+    if writer is not None:
+        writer.close()
+
+
+async def main():
+    parser = argparse.ArgumentParser()
+    parser.add_argument("--url", default="http://localhost:8080/api/items?mode=slice")
+    parser.add_argument("--connections", type=int, default=1000)
+    parser.add_argument("--duration", type=float, default=30)
+    parser.add_argument("--timeout", type=float, default=10, help="seconds per request before it counts as an error")
+    args = parser.parse_args()
+
+    url = urlsplit(args.url)
+    path = url.path + ("?" + url.query if url.query else "")
+    request = f"GET {path} HTTP/1.1\r\nHost: {url.netloc}\r\nAccept: application/json\r\n\r\n".encode()
+    latencies, errors = [], []
+    deadline = time.monotonic() + args.duration
+    await asyncio.gather(*(worker(url.hostname, url.port or 80, request, deadline, args.timeout,
+                                  latencies, errors)
+                           for _ in range(args.connections)))
+
+    latencies.sort()
+    def percentile(p):
+        return latencies[min(len(latencies) - 1, int(len(latencies) * p))] * 1000 if latencies else 0
+    print(f"connections={args.connections} duration={args.duration:.0f}s requests={len(latencies)} "
+          f"errors={len(errors)} throughput={len(latencies) / args.duration:.1f} req/s "
+          f"p50={percentile(0.5):.0f}ms p99={percentile(0.99):.0f}ms max={percentile(1.0):.0f}ms")
+    if errors:
+        print("first errors:", sorted(set(errors))[:5])
+
+
+if __name__ == "__main__":
+    asyncio.run(main())
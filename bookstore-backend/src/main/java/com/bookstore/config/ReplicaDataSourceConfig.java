@@ -0,0 +1,75 @@
+package com.bookstore.config;
+
+import com.bookstore.service.RecentWriteTracker;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+// Active when datasource.replica.url is set. spring.datasource stays the primary; the application
+// DataSource routes each transaction once it runs its first statement, because the read-only flag is
+// not known yet when the transaction manager asks for a connection. Needs spring.jpa.open-in-view off:
+// otherwise one EntityManager, and the connection it holds, serves every transaction of a web request,
+// so the first transaction's route would apply to all later ones.
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.url")
+public class ReplicaDataSourceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaDataSourceConfig.class);
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${datasource.replica.url}") String url,
+                                              @Value("${datasource.replica.username:}") String username,
+                                              @Value("${datasource.replica.password:}") String password,
+                                              @Value("${datasource.replica.maximum-pool-size:10}") int maximumPoolSize,
+                                              @Value("${datasource.replica.connection-timeout:1s}") Duration connectionTimeout) {
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setJdbcUrl(url);
+        replica.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+        replica.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+        replica.setDriverClassName(properties.determineDriverClassName());
+        replica.setMaximumPoolSize(maximumPoolSize);
+        // Short, so a replica that is down delays a read only briefly before it falls back to the primary
+        replica.setConnectionTimeout(connectionTimeout.toMillis());
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource,
+                                 RecentWriteTracker recentWriteTracker,
+                                 @Value("${datasource.replica.retry-after:30s}") Duration retryAfter,
+                                 @Value("${spring.jpa.open-in-view:true}") boolean openInView) {
+        if (openInView) {
+            logger.warn("spring.jpa.open-in-view is on, so transactions within one web request share the route "
+                + "of the first one; turn it off for read replica routing");
+        }
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(recentWriteTracker, retryAfter);
+        routing.setTargetDataSources(Map.of(
+            ReplicaRoutingDataSource.Route.PRIMARY, primaryDataSource,
+            ReplicaRoutingDataSource.Route.REPLICA, replicaDataSource));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,77 @@
+package com.bookstore.config;
+
+import com.bookstore.entity.User;
+import com.bookstore.service.RecentWriteTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+// Sends read-only transactions to the replica and everything else to the primary. Users who wrote
+// within the replica lag window read from the primary too. A replica that cannot hand out a
+// connection is skipped for that transaction and for retry-after, so an outage costs one connection
+// timeout per retry-after instead of one per read.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final RecentWriteTracker recentWriteTracker;
+    private final long retryAfterNanos;
+    // System.nanoTime() until which the replica is skipped; 0 while it is healthy
+    private volatile long unavailableUntil;
+
+    public ReplicaRoutingDataSource(RecentWriteTracker recentWriteTracker, Duration retryAfter) {
+        this.recentWriteTracker = recentWriteTracker;
+        this.retryAfterNanos = retryAfter.toNanos();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.PRIMARY;
+        }
+        long until = unavailableUntil;
+        if (until != 0 && System.nanoTime() - until < 0) {
+            return Route.PRIMARY;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user
+            && recentWriteTracker.isRecentWriter(user.getId())) {
+            return Route.PRIMARY;
+        }
+        return Route.REPLICA;
+    }
+
+    // The route is resolved once, so the fallback below applies to the pool that was actually asked
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object route = determineCurrentLookupKey();
+        boolean replica = route == Route.REPLICA;
+        try {
+            Connection connection = getResolvedDataSources().get(route).getConnection();
+            if (replica && unavailableUntil != 0) {
+                unavailableUntil = 0;
+                logger.info("Read replica is available again");
+            }
+            return connection;
+        } catch (SQLException e) {
+            if (!replica) {
+                throw e;
+            }
+            unavailableUntil = System.nanoTime() + retryAfterNanos;
+            logger.warn("Read replica unavailable, reading from the primary for {} s: {}",
+                retryAfterNanos / 1_000_000_000, e.getMessage());
+            return getResolvedDataSources().get(Route.PRIMARY).getConnection();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.bookstore.config;
 
 import com.bookstore.security.JwtAuthenticationFilter;
 import com.bookstore.security.UserDetailsServiceImpl;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -52,10 +53,15 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // Streaming responses (exports, /api/items/stream) finish in an async dispatch that was
+                // already authorized as a request
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/categories").permitAll()
                 .requestMatchers("/api/items").permitAll()
                 .requestMatchers("/api/items/search").permitAll()
+                .requestMatchers("/api/items/suggest").permitAll()
+                .requestMatchers("/api/items/stream").permitAll()
                 .requestMatchers("/api/items/{id}").permitAll()
                 .requestMatchers("/uploads/**").permitAll()
                 .requestMatchers("/h2-console/**").permitAll()
@@ -1,17 +0,0 @@
-package com.bookstore.config;
-
-import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
-
-import java.io.File;
-
-@Configuration
-public class WebConfig implements WebMvcConfigurer {
-
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        String uploadsPath = "file:" + System.getProperty("user.dir") + File.separator + "uploads" + File.separator;
-        registry.addResourceHandler("/uploads/**").addResourceLocations(uploadsPath);
-    }
-}
@@ -1,16 +1,29 @@
 package com.bookstore.controller;
 
 import com.bookstore.dto.AdminStatsDto;
+import com.bookstore.dto.CacheStatsDto;
+import com.bookstore.dto.UploadMigrationResultDto;
 import com.bookstore.dto.UserAnalyticsDto;
 import com.bookstore.entity.User;
 import com.bookstore.service.AdminService;
 import com.bookstore.service.AuthService;
+import com.bookstore.service.CatalogExportService;
+import com.bookstore.service.DataFormat;
+import com.bookstore.service.ItemDetailCache;
+import com.bookstore.service.UploadMigrationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -22,6 +35,15 @@ public class AdminController {
     @Autowired
     private AuthService authService;
     
+    @Autowired
+    private ItemDetailCache itemDetailCache;
+    
+    @Autowired
+    private CatalogExportService catalogExportService;
+    
+    @Autowired
+    private UploadMigrationService uploadMigrationService;
+    
     @GetMapping("/stats")
     public ResponseEntity<AdminStatsDto> getAdminStats() {
         try {
@@ -68,4 +90,74 @@ public class AdminController {
             return ResponseEntity.badRequest().build();
         }
     }
+    
+    @GetMapping("/cache-stats")
+    public ResponseEntity<CacheStatsDto> getCacheStats() {
+        try {
+            User currentUser = authService.getCurrentUser();
+            if (!currentUser.getRole().equals(User.Role.ADMIN)) {
+                return ResponseEntity.status(403).build();
+            }
+            
+            return ResponseEntity.ok(itemDetailCache.getStats());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // Moves uploads of the flat directory layout into the configured storage
+    @PostMapping("/uploads/migrate")
+    public ResponseEntity<?> migrateUploads() {
+        try {
+            User currentUser = authService.getCurrentUser();
+            if (!currentUser.getRole().equals(User.Role.ADMIN)) {
+                return ResponseEntity.status(403).build();
+            }
+            
+            UploadMigrationResultDto result = uploadMigrationService.migrate();
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/export/items")
+    public ResponseEntity<StreamingResponseBody> exportItems(@RequestParam(defaultValue = "csv") String format) {
+        try {
+            User currentUser = authService.getCurrentUser();
+            if (!currentUser.getRole().equals(User.Role.ADMIN)) {
+                return ResponseEntity.status(403).build();
+            }
+            
+            DataFormat dataFormat = DataFormat.fromName(format);
+            return exportResponse("items", dataFormat)
+                .body(out -> catalogExportService.exportItems(dataFormat, out));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/export/users")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "csv") String format) {
+        try {
+            User currentUser = authService.getCurrentUser();
+            if (!currentUser.getRole().equals(User.Role.ADMIN)) {
+                return ResponseEntity.status(403).build();
+            }
+            
+            DataFormat dataFormat = DataFormat.fromName(format);
+            return exportResponse("users", dataFormat)
+                .body(out -> catalogExportService.exportUsers(dataFormat, out));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // Rows are written while the body streams, so there is no Content-Length
+    private ResponseEntity.BodyBuilder exportResponse(String name, DataFormat format) {
+        String filename = name + "-" + LocalDate.now() + "." + format.getExtension();
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(format.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString());
+    }
 }
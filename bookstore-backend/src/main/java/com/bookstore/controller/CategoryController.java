@@ -1,13 +1,15 @@
 package com.bookstore.controller;
 
 import com.bookstore.dto.CategoryDto;
+import com.bookstore.service.CategoryCatalog;
 import com.bookstore.service.CategoryService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/categories")
@@ -16,10 +18,23 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
     
+    // Read directly so a conditional GET does not open a transaction
+    @Autowired
+    private CategoryCatalog categoryCatalog;
+    
     @GetMapping
-    public ResponseEntity<List<CategoryDto>> getAllCategories() {
-        List<CategoryDto> categories = categoryService.getAllCategories();
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<byte[]> getAllCategories(WebRequest request) {
+        CategoryCatalog.Snapshot catalog = categoryCatalog.getSnapshot();
+        // Answers If-None-Match / If-Modified-Since with 304 when the catalog version has not changed
+        if (request.checkNotModified(catalog.getEtag(), catalog.getLastModified())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+            .eTag(catalog.getEtag())
+            .lastModified(catalog.getLastModified())
+            .cacheControl(CacheControl.noCache())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(catalog.getJson());
     }
     
     @GetMapping("/{id}")
@@ -1,15 +1,32 @@
 package com.bookstore.controller;
 
+import com.bookstore.dto.BulkItemResultDto;
+import com.bookstore.dto.ImportJobDto;
 import com.bookstore.dto.ItemDto;
+import com.bookstore.dto.SuggestionDto;
+import com.bookstore.entity.User;
+import com.bookstore.search.SuggestionIndex;
 import com.bookstore.service.AuthService;
+import com.bookstore.service.CatalogVersion;
+import com.bookstore.service.ItemBulkService;
+import com.bookstore.service.ItemImportService;
 import com.bookstore.service.ItemService;
+import com.bookstore.service.ListingFeed;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/items")
@@ -18,22 +35,54 @@ public class ItemController {
     @Autowired
     private ItemService itemService;
     
+    @Autowired
+    private ItemBulkService itemBulkService;
+    
+    @Autowired
+    private ItemImportService itemImportService;
+    
     @Autowired
     private AuthService authService;
     
+    @Autowired
+    private CatalogVersion catalogVersion;
+    
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+    
+    @Autowired
+    private ListingFeed listingFeed;
+    
     @GetMapping
-    public ResponseEntity<Page<ItemDto>> getAllItems(
+    public ResponseEntity<?> getAllItems(
+            WebRequest request,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "page") String mode,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        
+        if (notModifiedSinceLastWrite(request)) {
+            return null;
+        }
+        
+        if ("cursor".equalsIgnoreCase(mode)) {
+            return listing(itemService.getAllItemsAfter(after, size, sortBy, sortDir));
+        }
+        
+        if ("slice".equalsIgnoreCase(mode)) {
+            return listing(itemService.getAllItemsSlice(page, size, sortBy, sortDir, withTotal));
+        }
         
         Page<ItemDto> items = itemService.getAllItems(page, size, sortBy, sortDir);
-        return ResponseEntity.ok(items);
+        return listing(items);
     }
     
     @GetMapping("/search")
-    public ResponseEntity<Page<ItemDto>> searchItems(
+    public ResponseEntity<?> searchItems(
+            WebRequest request,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String condition,
             @RequestParam(required = false) BigDecimal minPrice,
@@ -42,18 +91,67 @@ public class ItemController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "page") String mode,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean facets,
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        
+        if (notModifiedSinceLastWrite(request)) {
+            return null;
+        }
+        
+        if ("cursor".equalsIgnoreCase(mode)) {
+            return listing(itemService.searchItemsAfter(
+                category, condition, minPrice, maxPrice, searchTerm, fuzzy, after, size, sortBy, sortDir));
+        }
+        
+        if ("slice".equalsIgnoreCase(mode)) {
+            return listing(itemService.searchItemsSlice(
+                category, condition, minPrice, maxPrice, searchTerm, fuzzy, page, size, sortBy, sortDir, withTotal));
+        }
+        
+        if (facets) {
+            return listing(itemService.searchItemsWithFacets(
+                category, condition, minPrice, maxPrice, searchTerm, fuzzy, page, size, sortBy, sortDir));
+        }
         
         Page<ItemDto> items = itemService.searchItems(
-            category, condition, minPrice, maxPrice, searchTerm, page, size, sortBy, sortDir);
-        return ResponseEntity.ok(items);
+            category, condition, minPrice, maxPrice, searchTerm, fuzzy, page, size, sortBy, sortDir);
+        return listing(items);
+    }
+    
+    // Server-sent listing events; EventSource sends Last-Event-ID when it reconnects
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public void streamListings(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            listingFeed.subscribe(request, response, lastEventId);
+        } catch (RuntimeException e) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        }
+    }
+    
+    // Served from memory for search-as-you-type; no transaction or query per keystroke
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDto>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(suggestionIndex.suggest(prefix, limit));
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<ItemDto> getItemById(@PathVariable Long id) {
+    public ResponseEntity<ItemDto> getItemById(@PathVariable Long id, WebRequest request) {
         try {
             ItemDto item = itemService.getItemById(id);
-            return ResponseEntity.ok(item);
+            String etag = catalogVersion.getItemEtag(id, item.getCreatedAt(), item.getUpdatedAt());
+            long lastModified = catalogVersion.getItemLastModified(item.getCreatedAt(), item.getUpdatedAt());
+            if (request.checkNotModified(etag, lastModified)) {
+                return null;
+            }
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(item);
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
@@ -70,6 +168,45 @@ public class ItemController {
         }
     }
     
+    // Rows are validated and saved independently; see the per-row results for failures
+    @PostMapping("/bulk")
+    public ResponseEntity<?> saveItems(@RequestBody List<ItemDto> itemDtos) {
+        try {
+            var user = authService.getCurrentUser();
+            BulkItemResultDto result = itemBulkService.saveItems(itemDtos, user.getId());
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Failed to save items: " + e.getMessage());
+        }
+    }
+    
+    // Raw CSV or NDJSON body; rows are imported in the background
+    @PostMapping("/import")
+    public ResponseEntity<?> importItems(@RequestParam(defaultValue = "csv") String format, HttpServletRequest request) {
+        try {
+            var user = authService.getCurrentUser();
+            ImportJobDto job = itemImportService.submit(request.getInputStream(), request.getContentLengthLong(),
+                format, user.getId());
+            return ResponseEntity.accepted().body(job);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Failed to import items: " + e.getMessage());
+        }
+    }
+    
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<?> getImportJob(@PathVariable String jobId) {
+        try {
+            var user = authService.getCurrentUser();
+            ImportJobDto job = itemImportService.getJob(jobId);
+            if (!job.getSellerId().equals(user.getId()) && !user.getRole().equals(User.Role.ADMIN)) {
+                return ResponseEntity.status(403).build();
+            }
+            return ResponseEntity.ok(job);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Failed to get import job: " + e.getMessage());
+        }
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<?> updateItem(@PathVariable Long id, @Valid @RequestBody ItemDto itemDto) {
         try {
@@ -119,4 +256,13 @@ public class ItemController {
             return ResponseEntity.badRequest().body("Failed to get conditions: " + e.getMessage());
         }
     }
+    
+    // Listings change with any catalog write, so the write counter validates them before any query runs
+    private boolean notModifiedSinceLastWrite(WebRequest request) {
+        return request.checkNotModified(catalogVersion.getListEtag(), catalogVersion.getListLastModified());
+    }
+    
+    private ResponseEntity<?> listing(Object body) {
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(body);
+    }
 }
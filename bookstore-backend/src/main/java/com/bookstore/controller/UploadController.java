@@ -1,47 +1,115 @@
 package com.bookstore.controller;
 
+import com.bookstore.exception.UploadRejectedException;
+import com.bookstore.service.ImageRenditionService;
+import com.bookstore.service.MultipartUploadReader;
+import com.bookstore.service.UploadFileServer;
+import com.bookstore.service.UploadStorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.Map;
-import java.util.UUID;
 
 @RestController
 public class UploadController {
 
+    // Room for the part headers and boundaries around the file in a multipart body
+    private static final long MULTIPART_OVERHEAD = 16 * 1024;
+
+    @Autowired
+    private UploadStorageService uploadStorageService;
+
+    @Autowired
+    private ImageRenditionService imageRenditionService;
+
+    @Autowired
+    private UploadFileServer uploadFileServer;
+
+    // multipart/form-data with the image in a part named "file". The body is parsed while it arrives
+    // (Spring's multipart resolver is off), so the file is never buffered before it is stored.
     @PostMapping(value = "/api/items/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<?> uploadImage(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<?> uploadImage(HttpServletRequest request) {
+        String boundary = MultipartUploadReader.boundary(request.getContentType());
+        if (boundary == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Missing multipart boundary"));
+        }
+        // Checked before reading: a body this much larger than the limit cannot hold an acceptable file
+        DataSize maxSize = uploadStorageService.getMaxSize();
+        if (request.getContentLengthLong() > maxSize.toBytes() + MULTIPART_OVERHEAD) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(Map.of("error", "File exceeds the maximum size of " + maxSize));
+        }
         try {
-            if (file.isEmpty()) {
-                return ResponseEntity.badRequest().body(Map.of("error", "File is empty"));
+            MultipartUploadReader reader = new MultipartUploadReader(request.getInputStream(), boundary);
+            MultipartUploadReader.Part part;
+            while ((part = reader.next()) != null) {
+                if ("file".equals(part.getName())) {
+                    return store(part.getBody(), -1);
+                }
             }
+            return ResponseEntity.badRequest().body(Map.of("error", "Missing file part"));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Upload failed: " + e.getMessage()));
+        }
+    }
 
-            String uploadsDir = System.getProperty("user.dir") + File.separator + "uploads";
-            File dir = new File(uploadsDir);
-            if (!dir.exists()) dir.mkdirs();
-
-            String original = StringUtils.cleanPath(file.getOriginalFilename());
-            String ext = "";
-            int i = original.lastIndexOf('.');
-            if (i >= 0) ext = original.substring(i);
-            String filename = UUID.randomUUID().toString() + ext;
-
-            Path target = Paths.get(uploadsDir).resolve(filename);
-            Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
+    // The image as the raw request body, e.g. Content-Type: image/jpeg
+    @PostMapping(value = "/api/items/upload", consumes = {"image/*", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<?> uploadRawImage(HttpServletRequest request) {
+        try {
+            return store(request.getInputStream(), request.getContentLengthLong());
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Upload failed: " + e.getMessage()));
+        }
+    }
 
-            String url = "/uploads/" + filename;
+    private ResponseEntity<?> store(InputStream body, long contentLength) throws IOException {
+        try {
+            String url = uploadStorageService.store(body, contentLength);
             return ResponseEntity.ok(Map.of("url", url));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Upload failed: " + e.getMessage()));
+        } catch (UploadRejectedException e) {
+            return ResponseEntity.status(e.getStatus()).body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Without ?size= the original is returned. Content-addressed files are cached as immutable; a size
+    // answered with the original is cached briefly, until its rendition is ready
+    @GetMapping("/uploads/{filename:.+}")
+    public ResponseEntity<?> getImage(@PathVariable String filename, @RequestParam(required = false) String size,
+                                      HttpServletRequest request, HttpServletResponse response) {
+        ImageRenditionService.Rendition rendition;
+        try {
+            rendition = size == null ? null : ImageRenditionService.Rendition.fromName(size);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        try {
+            String key = imageRenditionService.resolve(filename, rendition);
+            boolean fallback = rendition != null && key.equals(filename);
+            CacheControl cacheControl = fallback ? CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic()
+                : UploadStorageService.isContentAddressed(filename) ? CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable()
+                : CacheControl.noCache();
+            if (!uploadFileServer.serve(key, cacheControl, request, response)) {
+                return ResponseEntity.notFound().build();
+            }
+            return null;
+        } catch (IOException e) {
+            // The client went away while the file was sent
+            return null;
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
         }
     }
 }
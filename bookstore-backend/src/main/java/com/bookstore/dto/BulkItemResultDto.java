@@ -0,0 +1,58 @@
+package com.bookstore.dto;
+
+import java.util.List;
+
+public class BulkItemResultDto {
+    
+    private int created;
+    private int updated;
+    private int failed;
+    private List<BulkItemRowDto> rows;
+    
+    // Constructors
+    public BulkItemResultDto() {}
+    
+    public BulkItemResultDto(List<BulkItemRowDto> rows) {
+        this.rows = rows;
+        for (BulkItemRowDto row : rows) {
+            switch (row.getStatus()) {
+                case CREATED -> created++;
+                case UPDATED -> updated++;
+                case FAILED -> failed++;
+            }
+        }
+    }
+    
+    // Getters and Setters
+    public int getCreated() {
+        return created;
+    }
+    
+    public void setCreated(int created) {
+        this.created = created;
+    }
+    
+    public int getUpdated() {
+        return updated;
+    }
+    
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+    
+    public int getFailed() {
+        return failed;
+    }
+    
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+    
+    public List<BulkItemRowDto> getRows() {
+        return rows;
+    }
+    
+    public void setRows(List<BulkItemRowDto> rows) {
+        this.rows = rows;
+    }
+}
@@ -0,0 +1,57 @@
+package com.bookstore.dto;
+
+public class BulkItemRowDto {
+    
+    public enum Status {
+        CREATED, UPDATED, FAILED
+    }
+    
+    // Position of the row in the request body
+    private int index;
+    private Long id;
+    private Status status;
+    private String error;
+    
+    // Constructors
+    public BulkItemRowDto() {}
+    
+    public BulkItemRowDto(int index, Long id, Status status, String error) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.error = error;
+    }
+    
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+    
+    public void setIndex(int index) {
+        this.index = index;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+}
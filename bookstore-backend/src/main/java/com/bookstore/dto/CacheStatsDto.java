@@ -0,0 +1,60 @@
+package com.bookstore.dto;
+
+public class CacheStatsDto {
+    private Long size;
+    private Long hitCount;
+    private Long missCount;
+    private Long evictionCount;
+    private Double hitRate;
+    
+    public CacheStatsDto() {}
+    
+    public CacheStatsDto(Long size, Long hitCount, Long missCount, Long evictionCount, Double hitRate) {
+        this.size = size;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.hitRate = hitRate;
+    }
+    
+    // Getters and Setters
+    public Long getSize() {
+        return size;
+    }
+    
+    public void setSize(Long size) {
+        this.size = size;
+    }
+    
+    public Long getHitCount() {
+        return hitCount;
+    }
+    
+    public void setHitCount(Long hitCount) {
+        this.hitCount = hitCount;
+    }
+    
+    public Long getMissCount() {
+        return missCount;
+    }
+    
+    public void setMissCount(Long missCount) {
+        this.missCount = missCount;
+    }
+    
+    public Long getEvictionCount() {
+        return evictionCount;
+    }
+    
+    public void setEvictionCount(Long evictionCount) {
+        this.evictionCount = evictionCount;
+    }
+    
+    public Double getHitRate() {
+        return hitRate;
+    }
+    
+    public void setHitRate(Double hitRate) {
+        this.hitRate = hitRate;
+    }
+}
@@ -0,0 +1,42 @@
+package com.bookstore.dto;
+
+public class FacetValueDto {
+    
+    private String value;
+    private String label;
+    private long count;
+    
+    // Constructors
+    public FacetValueDto() {}
+    
+    public FacetValueDto(String value, String label, long count) {
+        this.value = value;
+        this.label = label;
+        this.count = count;
+    }
+    
+    // Getters and Setters
+    public String getValue() {
+        return value;
+    }
+    
+    public void setValue(String value) {
+        this.value = value;
+    }
+    
+    public String getLabel() {
+        return label;
+    }
+    
+    public void setLabel(String label) {
+        this.label = label;
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
@@ -0,0 +1,21 @@
+package com.bookstore.dto;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+// Regular page serialization plus a "facets" property, so existing page consumers keep working
+public class FacetedPageDto<T> extends PageImpl<T> {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final SearchFacetsDto facets;
+    
+    public FacetedPageDto(Page<T> page, SearchFacetsDto facets) {
+        super(page.getContent(), page.getPageable(), page.getTotalElements());
+        this.facets = facets;
+    }
+    
+    public SearchFacetsDto getFacets() {
+        return facets;
+    }
+}
@@ -0,0 +1,133 @@
+package com.bookstore.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ImportJobDto {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private String id;
+    private String format;
+    private Status status;
+    private Long sellerId;
+    // Data lines read so far (the CSV header is not counted)
+    private long processed;
+    private long created;
+    private long failed;
+    // First row errors, prefixed with their line number
+    private List<String> errors;
+    private String message;
+    private LocalDateTime submittedAt;
+    private LocalDateTime finishedAt;
+
+    // Constructors
+    public ImportJobDto() {}
+
+    public ImportJobDto(String id, String format, Status status, Long sellerId, long processed, long created,
+                        long failed, List<String> errors, String message, LocalDateTime submittedAt,
+                        LocalDateTime finishedAt) {
+        this.id = id;
+        this.format = format;
+        this.status = status;
+        this.sellerId = sellerId;
+        this.processed = processed;
+        this.created = created;
+        this.failed = failed;
+        this.errors = errors;
+        this.message = message;
+        this.submittedAt = submittedAt;
+        this.finishedAt = finishedAt;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Long getSellerId() {
+        return sellerId;
+    }
+
+    public void setSellerId(Long sellerId) {
+        this.sellerId = sellerId;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(long processed) {
+        this.processed = processed;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(LocalDateTime submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
@@ -25,6 +25,13 @@ public class ItemDto {
     @Size(max = 500, message = "Image URL must not exceed 500 characters")
     private String imageUrl;
     
+    // Null until the image has been read; clients show the BlurHash while the image loads
+    private Integer imageWidth;
+    
+    private Integer imageHeight;
+    
+    private String imagePlaceholder;
+    
     @NotNull(message = "Condition is required")
     private Item.Condition condition;
     
@@ -50,7 +57,8 @@ public class ItemDto {
     // Constructors
     public ItemDto() {}
     
-    public ItemDto(Long id, String name, BigDecimal price, String imageUrl, 
+    public ItemDto(Long id, String name, BigDecimal price, String imageUrl,
+                   Integer imageWidth, Integer imageHeight, String imagePlaceholder,
                    Item.Condition condition, String description, Boolean isAvailable,
                    LocalDateTime createdAt, LocalDateTime updatedAt,
                    String categoryName, Long categoryId, String sellerName, String sellerEmail, Long sellerId) {
@@ -58,6 +66,9 @@ public class ItemDto {
         this.name = name;
         this.price = price;
         this.imageUrl = imageUrl;
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+        this.imagePlaceholder = imagePlaceholder;
         this.condition = condition;
         this.description = description;
         this.isAvailable = isAvailable;
@@ -103,6 +114,30 @@ public class ItemDto {
         this.imageUrl = imageUrl;
     }
     
+    public Integer getImageWidth() {
+        return imageWidth;
+    }
+    
+    public void setImageWidth(Integer imageWidth) {
+        this.imageWidth = imageWidth;
+    }
+    
+    public Integer getImageHeight() {
+        return imageHeight;
+    }
+    
+    public void setImageHeight(Integer imageHeight) {
+        this.imageHeight = imageHeight;
+    }
+    
+    public String getImagePlaceholder() {
+        return imagePlaceholder;
+    }
+    
+    public void setImagePlaceholder(String imagePlaceholder) {
+        this.imagePlaceholder = imagePlaceholder;
+    }
+    
     public Item.Condition getCondition() {
         return condition;
     }
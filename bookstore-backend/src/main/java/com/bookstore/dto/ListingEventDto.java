@@ -0,0 +1,102 @@
+package com.bookstore.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class ListingEventDto {
+    
+    public enum Type {
+        CREATED, PRICE_CHANGED, UNAVAILABLE, DELETED
+    }
+    
+    // Increases by one per event; sent as the SSE id so clients resume with Last-Event-ID
+    private long sequence;
+    private Type type;
+    private Long itemId;
+    private String name;
+    private BigDecimal price;
+    // Only set for PRICE_CHANGED
+    private BigDecimal previousPrice;
+    private Long categoryId;
+    private LocalDateTime occurredAt;
+    
+    // Constructors
+    public ListingEventDto() {}
+    
+    public ListingEventDto(long sequence, Type type, Long itemId, String name, BigDecimal price,
+                           BigDecimal previousPrice, Long categoryId, LocalDateTime occurredAt) {
+        this.sequence = sequence;
+        this.type = type;
+        this.itemId = itemId;
+        this.name = name;
+        this.price = price;
+        this.previousPrice = previousPrice;
+        this.categoryId = categoryId;
+        this.occurredAt = occurredAt;
+    }
+    
+    // Getters and Setters
+    public long getSequence() {
+        return sequence;
+    }
+    
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+    
+    public Type getType() {
+        return type;
+    }
+    
+    public void setType(Type type) {
+        this.type = type;
+    }
+    
+    public Long getItemId() {
+        return itemId;
+    }
+    
+    public void setItemId(Long itemId) {
+        this.itemId = itemId;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public BigDecimal getPrice() {
+        return price;
+    }
+    
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+    
+    public BigDecimal getPreviousPrice() {
+        return previousPrice;
+    }
+    
+    public void setPreviousPrice(BigDecimal previousPrice) {
+        this.previousPrice = previousPrice;
+    }
+    
+    public Long getCategoryId() {
+        return categoryId;
+    }
+    
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+    
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+    
+    public void setOccurredAt(LocalDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+}
@@ -0,0 +1,48 @@
+package com.bookstore.dto;
+
+import java.math.BigDecimal;
+
+public class PriceBucketDto {
+    
+    // Inclusive lower bound; null for the first bucket
+    private BigDecimal min;
+    
+    // Exclusive upper bound; null for the last bucket
+    private BigDecimal max;
+    
+    private long count;
+    
+    // Constructors
+    public PriceBucketDto() {}
+    
+    public PriceBucketDto(BigDecimal min, BigDecimal max, long count) {
+        this.min = min;
+        this.max = max;
+        this.count = count;
+    }
+    
+    // Getters and Setters
+    public BigDecimal getMin() {
+        return min;
+    }
+    
+    public void setMin(BigDecimal min) {
+        this.min = min;
+    }
+    
+    public BigDecimal getMax() {
+        return max;
+    }
+    
+    public void setMax(BigDecimal max) {
+        this.max = max;
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
@@ -0,0 +1,45 @@
+package com.bookstore.dto;
+
+import java.util.List;
+
+public class SearchFacetsDto {
+    
+    private List<FacetValueDto> categories;
+    private List<FacetValueDto> conditions;
+    private List<PriceBucketDto> priceRanges;
+    
+    // Constructors
+    public SearchFacetsDto() {}
+    
+    public SearchFacetsDto(List<FacetValueDto> categories, List<FacetValueDto> conditions,
+                           List<PriceBucketDto> priceRanges) {
+        this.categories = categories;
+        this.conditions = conditions;
+        this.priceRanges = priceRanges;
+    }
+    
+    // Getters and Setters
+    public List<FacetValueDto> getCategories() {
+        return categories;
+    }
+    
+    public void setCategories(List<FacetValueDto> categories) {
+        this.categories = categories;
+    }
+    
+    public List<FacetValueDto> getConditions() {
+        return conditions;
+    }
+    
+    public void setConditions(List<FacetValueDto> conditions) {
+        this.conditions = conditions;
+    }
+    
+    public List<PriceBucketDto> getPriceRanges() {
+        return priceRanges;
+    }
+    
+    public void setPriceRanges(List<PriceBucketDto> priceRanges) {
+        this.priceRanges = priceRanges;
+    }
+}
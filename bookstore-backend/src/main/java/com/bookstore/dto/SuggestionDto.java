@@ -0,0 +1,46 @@
+package com.bookstore.dto;
+
+public class SuggestionDto {
+
+    public enum Type {
+        ITEM, CATEGORY
+    }
+
+    private String text;
+    private Type type;
+    private int count;
+
+    // Constructors
+    public SuggestionDto() {}
+
+    public SuggestionDto(String text, Type type, int count) {
+        this.text = text;
+        this.type = type;
+        this.count = count;
+    }
+
+    // Getters and Setters
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+}
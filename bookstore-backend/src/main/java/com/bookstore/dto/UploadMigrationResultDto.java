@@ -0,0 +1,57 @@
+package com.bookstore.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class UploadMigrationResultDto {
+    // Files stored under their own key in the new layout
+    private int moved;
+    // Older uploads stored under their content hash
+    private int renamed;
+    private int itemsUpdated;
+    private int failed;
+    private List<String> errors = new ArrayList<>();
+    
+    public UploadMigrationResultDto() {}
+    
+    // Getters and Setters
+    public int getMoved() {
+        return moved;
+    }
+    
+    public void setMoved(int moved) {
+        this.moved = moved;
+    }
+    
+    public int getRenamed() {
+        return renamed;
+    }
+    
+    public void setRenamed(int renamed) {
+        this.renamed = renamed;
+    }
+    
+    public int getItemsUpdated() {
+        return itemsUpdated;
+    }
+    
+    public void setItemsUpdated(int itemsUpdated) {
+        this.itemsUpdated = itemsUpdated;
+    }
+    
+    public int getFailed() {
+        return failed;
+    }
+    
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+    
+    public List<String> getErrors() {
+        return errors;
+    }
+    
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+}
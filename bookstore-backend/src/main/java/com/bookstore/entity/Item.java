@@ -10,7 +10,15 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "items")
+// One index per supported ItemSort, led by is_available since listings only show available items
+@Table(name = "items", indexes = {
+    @Index(name = "idx_items_available_created", columnList = "is_available, created_at, id"),
+    @Index(name = "idx_items_available_price", columnList = "is_available, price, id"),
+    @Index(name = "idx_items_available_name", columnList = "is_available, name, id"),
+    @Index(name = "idx_items_available_condition", columnList = "is_available, condition_status, id"),
+    // Reference counts of uploaded images
+    @Index(name = "idx_items_image_url", columnList = "image_url")
+})
 public class Item {
     
     @Id
@@ -32,6 +40,16 @@ public class Item {
     @Column(name = "image_url", nullable = false)
     private String imageUrl;
     
+    // Pixel size and BlurHash of the image, filled in by ImagePlaceholderService once it has been read
+    @Column(name = "image_width")
+    private Integer imageWidth;
+    
+    @Column(name = "image_height")
+    private Integer imageHeight;
+    
+    @Column(name = "image_placeholder", length = 100)
+    private String imagePlaceholder;
+    
     @Enumerated(EnumType.STRING)
     @Column(name = "condition_status", nullable = false)
     private Condition condition;
@@ -107,6 +125,30 @@ public class Item {
         this.imageUrl = imageUrl;
     }
     
+    public Integer getImageWidth() {
+        return imageWidth;
+    }
+    
+    public void setImageWidth(Integer imageWidth) {
+        this.imageWidth = imageWidth;
+    }
+    
+    public Integer getImageHeight() {
+        return imageHeight;
+    }
+    
+    public void setImageHeight(Integer imageHeight) {
+        this.imageHeight = imageHeight;
+    }
+    
+    public String getImagePlaceholder() {
+        return imagePlaceholder;
+    }
+    
+    public void setImagePlaceholder(String imagePlaceholder) {
+        this.imagePlaceholder = imagePlaceholder;
+    }
+    
     public Condition getCondition() {
         return condition;
     }
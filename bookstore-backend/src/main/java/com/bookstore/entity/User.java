@@ -1,5 +1,6 @@
 package com.bookstore.entity;
 
+import com.bookstore.event.UserChangePublisher;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -14,6 +15,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserChangePublisher.class)
 public class User implements UserDetails {
     
     @Id
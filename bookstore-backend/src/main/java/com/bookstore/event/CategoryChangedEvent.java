@@ -0,0 +1,27 @@
+package com.bookstore.event;
+
+import com.bookstore.dto.CategoryDto;
+
+// Published by CategoryService on every category write; listeners run after the transaction commits
+public class CategoryChangedEvent {
+    
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+    
+    private final Type type;
+    private final CategoryDto category;
+    
+    public CategoryChangedEvent(Type type, CategoryDto category) {
+        this.type = type;
+        this.category = category;
+    }
+    
+    public Type getType() {
+        return type;
+    }
+    
+    public CategoryDto getCategory() {
+        return category;
+    }
+}
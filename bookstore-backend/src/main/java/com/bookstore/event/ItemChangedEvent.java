@@ -0,0 +1,47 @@
+package com.bookstore.event;
+
+import com.bookstore.dto.ItemDto;
+
+// Published by ItemService on every item write; listeners run after the transaction commits
+public class ItemChangedEvent {
+    
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+    
+    private final Type type;
+    private final ItemDto item;
+    // State before an UPDATED change, when the publisher captured it
+    private final ItemDto previous;
+    
+    public ItemChangedEvent(Type type, ItemDto item) {
+        this(type, item, null);
+    }
+    
+    public ItemChangedEvent(Type type, ItemDto item, ItemDto previous) {
+        this.type = type;
+        this.item = item;
+        this.previous = previous;
+    }
+    
+    public Type getType() {
+        return type;
+    }
+    
+    public ItemDto getItem() {
+        return item;
+    }
+    
+    public ItemDto getPrevious() {
+        return previous;
+    }
+    
+    public Long getItemId() {
+        return item.getId();
+    }
+    
+    // True when the item should be visible in listings after this change
+    public boolean isListed() {
+        return type != Type.DELETED && Boolean.TRUE.equals(item.getIsAvailable());
+    }
+}
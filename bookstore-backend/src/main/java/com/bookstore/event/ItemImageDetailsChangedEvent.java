@@ -0,0 +1,16 @@
+package com.bookstore.event;
+
+// Published by ImagePlaceholderService after it has filled in the size and placeholder of an image
+// on the items using it, without an ItemChangedEvent per item
+public class ItemImageDetailsChangedEvent {
+    
+    private final String imageUrl;
+    
+    public ItemImageDetailsChangedEvent(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+    
+    public String getImageUrl() {
+        return imageUrl;
+    }
+}
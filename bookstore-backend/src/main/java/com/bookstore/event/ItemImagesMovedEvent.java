@@ -0,0 +1,19 @@
+package com.bookstore.event;
+
+import java.util.Map;
+
+// Published by UploadMigrationService when item image URLs are rewritten in bulk, without an
+// ItemChangedEvent per item; listeners run after the transaction commits
+public class ItemImagesMovedEvent {
+    
+    // Old URL to new URL
+    private final Map<String, String> urls;
+    
+    public ItemImagesMovedEvent(Map<String, String> urls) {
+        this.urls = urls;
+    }
+    
+    public Map<String, String> getUrls() {
+        return urls;
+    }
+}
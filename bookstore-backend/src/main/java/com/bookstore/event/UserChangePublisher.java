@@ -0,0 +1,20 @@
+package com.bookstore.event;
+
+import com.bookstore.entity.User;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+// JPA entity listener on User; there is no single service for user updates, so hook the entity itself
+@Component
+public class UserChangePublisher {
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @PostUpdate
+    public void afterUpdate(User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
+    }
+}
@@ -0,0 +1,15 @@
+package com.bookstore.event;
+
+// Published when a persisted user row is updated, e.g. a seller renaming themselves
+public class UserChangedEvent {
+    
+    private final Long userId;
+    
+    public UserChangedEvent(Long userId) {
+        this.userId = userId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+}
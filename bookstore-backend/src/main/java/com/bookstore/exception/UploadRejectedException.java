@@ -0,0 +1,21 @@
+package com.bookstore.exception;
+
+import org.springframework.http.HttpStatus;
+
+// An upload refused before it is stored, with the status to answer: 413 when too large, 415 when not
+// a supported image
+public class UploadRejectedException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final HttpStatus status;
+    
+    public UploadRejectedException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+    
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
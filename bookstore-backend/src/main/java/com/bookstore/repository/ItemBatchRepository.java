@@ -0,0 +1,106 @@
+package com.bookstore.repository;
+
+import com.bookstore.entity.Item;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+// Multi-row item inserts for the bulk and import paths. Item ids are IDENTITY columns, which keep
+// Hibernate from batching inserts, so new rows go out as one JDBC batch and the generated keys are
+// read back. Existing rows keep their ids, so no id strategy migration is needed.
+@Repository
+public class ItemBatchRepository {
+
+    private static final String INSERT_ITEM = "INSERT INTO items " +
+        "(name, price, image_url, image_width, image_height, image_placeholder, condition_status, description, " +
+        "is_available, created_at, category_id, seller_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_IMAGE_URL = "UPDATE items SET image_url = ? WHERE image_url = ?";
+
+    private static final String UPDATE_IMAGE_DETAILS = "UPDATE items SET image_width = ?, image_height = ?, " +
+        "image_placeholder = ? WHERE image_url = ? AND image_placeholder IS NULL";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Joins the caller's transaction; sets the generated id on every item
+    public void insertAll(List<Item> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+            connection -> connection.prepareStatement(INSERT_ITEM, new String[] {"id"}),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    Item item = items.get(i);
+                    ps.setString(1, item.getName());
+                    ps.setBigDecimal(2, item.getPrice());
+                    ps.setString(3, item.getImageUrl());
+                    ps.setObject(4, item.getImageWidth(), Types.INTEGER);
+                    ps.setObject(5, item.getImageHeight(), Types.INTEGER);
+                    ps.setString(6, item.getImagePlaceholder());
+                    ps.setString(7, item.getCondition().name());
+                    ps.setString(8, item.getDescription());
+                    ps.setBoolean(9, item.getIsAvailable());
+                    ps.setTimestamp(10, Timestamp.valueOf(item.getCreatedAt()));
+                    ps.setLong(11, item.getCategory().getId());
+                    ps.setLong(12, item.getSeller().getId());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return items.size();
+                }
+            },
+            keyHolder);
+        // The key column is reported as ID by H2 and GENERATED_KEY by MySQL, so it is read by position
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < items.size(); i++) {
+            items.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+    }
+
+    // Points every item using an old URL at its new one; joins the caller's transaction and returns
+    // the number of items changed
+    public int updateImageUrls(Map<String, String> urls) {
+        if (urls.isEmpty()) {
+            return 0;
+        }
+        List<Map.Entry<String, String>> entries = List.copyOf(urls.entrySet());
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_IMAGE_URL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setString(1, entries.get(i).getValue());
+                ps.setString(2, entries.get(i).getKey());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+        int updated = 0;
+        for (int count : counts) {
+            // SUCCESS_NO_INFO (-2) when the driver does not report counts
+            updated += Math.max(count, 0);
+        }
+        return updated;
+    }
+
+    // Fills in the image details of every item using url that has none yet; returns the number of items
+    public int updateImageDetails(String url, int width, int height, String placeholder) {
+        return jdbcTemplate.update(UPDATE_IMAGE_DETAILS, width, height, placeholder, url);
+    }
+}
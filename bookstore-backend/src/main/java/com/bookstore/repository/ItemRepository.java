@@ -1,34 +1,49 @@
 package com.bookstore.repository;
 
+import com.bookstore.dto.ItemDto;
 import com.bookstore.entity.Item;
-import com.bookstore.entity.Category;
 import com.bookstore.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ItemRepository extends JpaRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, Long>, JpaSpecificationExecutor<Item> {
     
-    Page<Item> findByIsAvailableTrue(Pageable pageable);
+    // Read queries below select ItemDto rows with category and seller joined in, instead of
+    // loading Item entities and lazily fetching both associations per row
+    String ITEM_DTO_SELECT = "SELECT new com.bookstore.dto.ItemDto(" +
+        "i.id, i.name, i.price, i.imageUrl, i.imageWidth, i.imageHeight, i.imagePlaceholder, " +
+        "i.condition, i.description, i.isAvailable, " +
+        "i.createdAt, i.updatedAt, c.name, c.id, s.fullName, s.email, s.id) " +
+        "FROM Item i JOIN i.category c JOIN i.seller s ";
     
-    Page<Item> findByCategoryAndIsAvailableTrue(Category category, Pageable pageable);
+    String FILTERS = "(:category IS NULL OR c.name = :category) AND " +
+        "(:condition IS NULL OR i.condition = :condition) AND " +
+        "(:minPrice IS NULL OR i.price >= :minPrice) AND " +
+        "(:maxPrice IS NULL OR i.price <= :maxPrice)";
     
-    Page<Item> findBySellerAndIsAvailableTrue(User seller, Pageable pageable);
+    String SEARCH_TERM_FILTER = "(:searchTerm IS NULL OR LOWER(i.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
+        "OR LOWER(i.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')))";
     
-    @Query("SELECT i FROM Item i WHERE i.isAvailable = true AND " +
-           "(:category IS NULL OR i.category.name = :category) AND " +
-           "(:condition IS NULL OR i.condition = :condition) AND " +
-           "(:minPrice IS NULL OR i.price >= :minPrice) AND " +
-           "(:maxPrice IS NULL OR i.price <= :maxPrice) AND " +
-           "(:searchTerm IS NULL OR LOWER(i.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
-    Page<Item> findItemsWithFilters(
+    @Query(value = ITEM_DTO_SELECT + "WHERE i.isAvailable = true",
+           countQuery = "SELECT COUNT(i) FROM Item i WHERE i.isAvailable = true")
+    Page<ItemDto> findAvailableItemDtos(Pageable pageable);
+    
+    @Query(value = ITEM_DTO_SELECT + "WHERE i.isAvailable = true AND " + FILTERS + " AND " + SEARCH_TERM_FILTER,
+           countQuery = "SELECT COUNT(i) FROM Item i JOIN i.category c WHERE i.isAvailable = true AND " +
+               FILTERS + " AND " + SEARCH_TERM_FILTER)
+    Page<ItemDto> findItemDtosWithFilters(
         @Param("category") String category,
         @Param("condition") Item.Condition condition,
         @Param("minPrice") BigDecimal minPrice,
@@ -36,6 +51,57 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
         @Param("searchTerm") String searchTerm,
         Pageable pageable);
     
+    // Slice queries fetch one row more than the page size instead of running a count query
+    @Query(ITEM_DTO_SELECT + "WHERE i.isAvailable = true")
+    Slice<ItemDto> findAvailableItemDtoSlice(Pageable pageable);
+    
+    @Query(ITEM_DTO_SELECT + "WHERE i.isAvailable = true AND " + FILTERS + " AND " + SEARCH_TERM_FILTER)
+    Slice<ItemDto> findItemDtoSliceWithFilters(
+        @Param("category") String category,
+        @Param("condition") Item.Condition condition,
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        @Param("searchTerm") String searchTerm,
+        Pageable pageable);
+    
+    @Query("SELECT COUNT(i) FROM Item i JOIN i.category c WHERE i.isAvailable = true AND " +
+           FILTERS + " AND " + SEARCH_TERM_FILTER)
+    long countItemsWithFilters(
+        @Param("category") String category,
+        @Param("condition") Item.Condition condition,
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        @Param("searchTerm") String searchTerm);
+    
+    @Query(value = ITEM_DTO_SELECT + "WHERE s.id = :sellerId AND i.isAvailable = true",
+           countQuery = "SELECT COUNT(i) FROM Item i WHERE i.seller.id = :sellerId AND i.isAvailable = true")
+    Page<ItemDto> findItemDtosBySellerId(@Param("sellerId") Long sellerId, Pageable pageable);
+    
+    @Query(ITEM_DTO_SELECT + "WHERE i.id = :id")
+    Optional<ItemDto> findItemDtoById(@Param("id") Long id);
+    
+    @Query(ITEM_DTO_SELECT + "WHERE i.id IN :ids")
+    List<ItemDto> findItemDtosByIdIn(@Param("ids") List<Long> ids);
+    
+    @Query("SELECT i FROM Item i JOIN FETCH i.category WHERE i.isAvailable = true")
+    List<Item> findAvailableWithCategory();
+    
+    @Query("SELECT i.id, i.name, i.description FROM Item i WHERE i.isAvailable = true")
+    List<Object[]> findAvailableSearchText();
+    
+    @Query("SELECT i.id, i.name, i.price, i.category.id, i.condition, i.createdAt FROM Item i " +
+           "WHERE i.isAvailable = true")
+    List<Object[]> findAvailableColumnValues();
+    
+    @Query("SELECT i.id, i.name, i.category.id FROM Item i WHERE i.isAvailable = true")
+    List<Object[]> findAvailableSuggestValues();
+    
+    @Query("SELECT i.id, i.price, i.condition, c.id, c.name FROM Item i JOIN i.category c WHERE i.isAvailable = true")
+    List<Object[]> findAvailableFacetValues();
+    
+    @Query("SELECT MAX(COALESCE(i.updatedAt, i.createdAt)) FROM Item i")
+    LocalDateTime findLastModified();
+    
     @Query("SELECT DISTINCT i.condition FROM Item i WHERE i.isAvailable = true")
     List<Item.Condition> findDistinctConditions();
     
@@ -51,4 +117,13 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
     @Query("SELECT SUM(i.price) FROM Item i")
     BigDecimal getTotalItemsValue();
     
+    // Reference counts of uploaded images (imageUrl values of the form /uploads/<name>)
+    long countByImageUrl(String imageUrl);
+    
+    @Query("SELECT DISTINCT i.imageUrl FROM Item i WHERE i.imageUrl LIKE CONCAT(:prefix, '%')")
+    List<String> findImageUrlsStartingWith(@Param("prefix") String prefix);
+    
+    @Query("SELECT DISTINCT i.imageUrl FROM Item i WHERE i.imagePlaceholder IS NULL")
+    List<String> findImageUrlsWithoutPlaceholder();
+    
 }
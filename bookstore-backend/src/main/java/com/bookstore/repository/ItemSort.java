@@ -0,0 +1,52 @@
+package com.bookstore.repository;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+// Sort orders accepted by the item listings. Each one has a composite index on Item and a
+// pre-sorted index in AvailableItemColumns; any other sortBy is rejected before a query is built.
+public enum ItemSort {
+
+    CREATED_AT("createdAt"),
+    PRICE("price"),
+    NAME("name"),
+    CONDITION("condition");
+
+    private final String property;
+
+    ItemSort(String property) {
+        this.property = property;
+    }
+
+    public static boolean isSupported(String property) {
+        for (ItemSort sort : values()) {
+            if (sort.property.equals(property)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static ItemSort fromProperty(String property) {
+        for (ItemSort sort : values()) {
+            if (sort.property.equals(property)) {
+                return sort;
+            }
+        }
+        throw new RuntimeException("Unsupported sort field: " + property + ". Supported: " + Arrays.stream(values())
+            .map(ItemSort::getProperty)
+            .collect(Collectors.joining(", ")));
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    // The id tie-breaker keeps pages stable when many items share a sort value
+    public Sort toSort(boolean descending) {
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return Sort.by(direction, property, "id");
+    }
+}
@@ -0,0 +1,65 @@
+package com.bookstore.repository;
+
+import com.bookstore.entity.Item;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class ItemSpecifications {
+    
+    private ItemSpecifications() {}
+    
+    public static Specification<Item> isAvailable() {
+        return (root, query, cb) -> cb.isTrue(root.get("isAvailable"));
+    }
+    
+    // Same filters as ItemRepository.FILTERS and SEARCH_TERM_FILTER, null arguments are ignored
+    public static Specification<Item> withFilters(String category, Item.Condition condition, BigDecimal minPrice,
+                                                  BigDecimal maxPrice, String searchTerm) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.isTrue(root.get("isAvailable")));
+            if (category != null) {
+                predicates.add(cb.equal(root.get("category").get("name"), category));
+            }
+            if (condition != null) {
+                predicates.add(cb.equal(root.get("condition"), condition));
+            }
+            if (minPrice != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), minPrice));
+            }
+            if (maxPrice != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), maxPrice));
+            }
+            if (searchTerm != null) {
+                String pattern = "%" + searchTerm.toLowerCase() + "%";
+                predicates.add(cb.or(
+                    cb.like(cb.lower(root.get("name")), pattern),
+                    cb.like(cb.lower(root.get("description")), pattern)));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+    
+    public static Specification<Item> idIn(List<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+    
+    // Keyset predicate: rows strictly after (value, id) in the given sort direction
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<Item> after(String attribute, Comparable value, Long id, boolean descending) {
+        return (root, query, cb) -> {
+            Path<Comparable> key = root.get(attribute);
+            Path<Long> idPath = root.get("id");
+            Predicate beyond = descending ? cb.lessThan(key, value) : cb.greaterThan(key, value);
+            Predicate tieBreak = cb.and(
+                cb.equal(key, value),
+                descending ? cb.lessThan(idPath, id) : cb.greaterThan(idPath, id));
+            return cb.or(beyond, tieBreak);
+        };
+    }
+}
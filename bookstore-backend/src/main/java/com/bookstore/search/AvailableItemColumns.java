@@ -0,0 +1,368 @@
+package com.bookstore.search;
+
+import com.bookstore.dto.ItemDto;
+import com.bookstore.entity.Item;
+import com.bookstore.event.CategoryChangedEvent;
+import com.bookstore.event.ItemChangedEvent;
+import com.bookstore.repository.ItemRepository;
+import com.bookstore.repository.ItemSort;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Column-per-attribute copy of the available items, so browse and text queries are filtered with
+// loops over primitive arrays and only the final page touches the database. Every ItemSort has a row
+// index kept sorted on writes, so paging walks it instead of sorting per request.
+@Component
+public class AvailableItemColumns {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailableItemColumns.class);
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final ItemSort[] SORTS = ItemSort.values();
+
+    // Candidate sets smaller than rows / DIRECT_SORT_RATIO are sorted on their own instead of
+    // walking a whole index
+    private static final int DIRECT_SORT_RATIO = 16;
+
+    // Conditions are stored by name, so SQL sorts them alphabetically; the in-memory order matches
+    private static final byte[] CONDITION_RANK = new byte[Item.Condition.values().length];
+
+    static {
+        Item.Condition[] byName = Item.Condition.values().clone();
+        Arrays.sort(byName, Comparator.comparing(Item.Condition::name));
+        for (int rank = 0; rank < byName.length; rank++) {
+            CONDITION_RANK[byName[rank].ordinal()] = (byte) rank;
+        }
+    }
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    // Row i of every array describes the same item; rows are unordered and deletes swap in the last row
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] prices = new long[INITIAL_CAPACITY];
+    private int[] categoryIds = new int[INITIAL_CAPACITY];
+    private byte[] conditions = new byte[INITIAL_CAPACITY];
+    private long[] createdAts = new long[INITIAL_CAPACITY];
+    // Lower-cased, so names sort case-insensitively like the Lucene index and MySQL's default collation
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int rows;
+    // Row numbers ordered by each sort key ascending, id breaking ties
+    private final int[][] sorted = new int[SORTS.length][INITIAL_CAPACITY];
+    private final Map<Long, Integer> rowById = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        List<Object[]> values = itemRepository.findAvailableColumnValues();
+        lock.writeLock().lock();
+        try {
+            rows = 0;
+            rowById.clear();
+            for (Object[] row : values) {
+                ensureCapacity();
+                set(rows, (Long) row[0], (String) row[1], (BigDecimal) row[2], (Long) row[3],
+                    (Item.Condition) row[4], (LocalDateTime) row[5]);
+                rowById.put((Long) row[0], rows);
+                rows++;
+            }
+            // Bulk load sorts each index once instead of inserting row by row
+            for (ItemSort sort : SORTS) {
+                Integer[] order = new Integer[rows];
+                for (int row = 0; row < rows; row++) {
+                    order[row] = row;
+                }
+                Arrays.sort(order, (a, b) -> compare(sort, a, b));
+                int[] index = sorted[sort.ordinal()];
+                for (int i = 0; i < rows; i++) {
+                    index[i] = order[i];
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+        logger.info("Loaded {} available items into columns", values.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onItemChanged(ItemChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowById.get(event.getItemId());
+            if (row != null) {
+                removeRow(row);
+            }
+            if (event.isListed()) {
+                ItemDto item = event.getItem();
+                ensureCapacity();
+                set(rows, item.getId(), item.getName(), item.getPrice(), item.getCategoryId(), item.getCondition(),
+                    item.getCreatedAt());
+                rowById.put(item.getId(), rows);
+                for (ItemSort sort : SORTS) {
+                    insertSorted(sort, rows);
+                }
+                rows++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Deleting a category cascades to its items without publishing item events
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.getType() == CategoryChangedEvent.Type.DELETED) {
+            rebuild();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Every ItemSort has an index; id is only accepted as the tie-breaker the indexes already apply
+    public boolean supports(Sort sort) {
+        for (Sort.Order order : sort) {
+            if (!order.getProperty().equals("id") && !ItemSort.isSupported(order.getProperty())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Ids of the requested page in the order of its first sort property (id breaks ties), plus the
+    // total match count. Empty while not loaded or for a sort without an index (such as relevance);
+    // categoryId null = any category, candidates (such as text matches) null = every available item.
+    public Optional<Page<Long>> search(Long categoryId, Item.Condition condition, BigDecimal minPrice,
+                                       BigDecimal maxPrice, RoaringBitmap candidates, Pageable pageable) {
+        if (!ready || !supports(pageable.getSort())) {
+            return Optional.empty();
+        }
+        Sort.Order order = firstOrder(pageable);
+        ItemSort sort = ItemSort.fromProperty(order.getProperty());
+        boolean descending = order.isDescending();
+        RowFilter filter = new RowFilter(categoryId, condition, minPrice, maxPrice);
+        long from = pageable.getOffset();
+        long to = from + pageable.getPageSize();
+
+        lock.readLock().lock();
+        try {
+            if (candidates != null && (long) candidates.getCardinality() * DIRECT_SORT_RATIO < rows) {
+                List<Integer> matched = candidateRows(candidates, filter);
+                matched.sort(rowOrder(order));
+                return Optional.of(toPage(matched, pageable));
+            }
+            int[] index = sorted[sort.ordinal()];
+            List<Long> page = new ArrayList<>();
+            long total = 0;
+            for (int i = 0; i < rows; i++) {
+                int row = index[descending ? rows - 1 - i : i];
+                if (!accepts(row, filter) || (candidates != null && !candidates.contains((int) ids[row]))) {
+                    continue;
+                }
+                if (total >= from && total < to) {
+                    page.add(ids[row]);
+                }
+                total++;
+            }
+            return Optional.of(new PageImpl<>(page, pageable, total));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Like search over the scored items only, ranked by score (highest first) with the requested sort
+    // breaking ties
+    public Optional<Page<Long>> searchRanked(Long categoryId, Item.Condition condition, BigDecimal minPrice,
+                                             BigDecimal maxPrice, Map<Long, Double> scores, Pageable pageable) {
+        if (!ready || !supports(pageable.getSort())) {
+            return Optional.empty();
+        }
+        RowFilter filter = new RowFilter(categoryId, condition, minPrice, maxPrice);
+        Comparator<Integer> byScore = Comparator.comparingDouble(row -> scores.get(ids[row]));
+        lock.readLock().lock();
+        try {
+            List<Integer> matched = candidateRows(scores.keySet(), filter);
+            matched.sort(byScore.reversed().thenComparing(rowOrder(firstOrder(pageable))));
+            return Optional.of(toPage(matched, pageable));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Sort.Order firstOrder(Pageable pageable) {
+        return pageable.getSort().stream().findFirst().orElse(Sort.Order.desc("createdAt"));
+    }
+
+    // Rows in the order of the sort property, id breaking ties the same way
+    private Comparator<Integer> rowOrder(Sort.Order order) {
+        ItemSort sort = ItemSort.fromProperty(order.getProperty());
+        Comparator<Integer> ascending = (a, b) -> compare(sort, a, b);
+        return order.isDescending() ? ascending.reversed() : ascending;
+    }
+
+    private boolean accepts(int row, RowFilter filter) {
+        return (filter.categoryId < 0 || categoryIds[row] == filter.categoryId)
+            && (filter.condition < 0 || conditions[row] == filter.condition)
+            && prices[row] >= filter.lower && prices[row] <= filter.upper;
+    }
+
+    // Rows of the candidates that pass the filter, unordered; candidates no longer available are skipped
+    private List<Integer> candidateRows(Iterable<? extends Number> candidates, RowFilter filter) {
+        List<Integer> matched = new ArrayList<>();
+        for (Number id : candidates) {
+            Integer row = rowById.get(id.longValue());
+            if (row != null && accepts(row, filter)) {
+                matched.add(row);
+            }
+        }
+        return matched;
+    }
+
+    // The requested page of rows already in result order, with all of them counted as the total
+    private Page<Long> toPage(List<Integer> ordered, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), ordered.size());
+        int to = Math.min(from + pageable.getPageSize(), ordered.size());
+        List<Long> page = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            page.add(ids[ordered.get(i)]);
+        }
+        return new PageImpl<>(page, pageable, ordered.size());
+    }
+
+    private int compare(ItemSort sort, int a, int b) {
+        int cmp = switch (sort) {
+            case CREATED_AT -> Long.compare(createdAts[a], createdAts[b]);
+            case PRICE -> Long.compare(prices[a], prices[b]);
+            case NAME -> names[a].compareTo(names[b]);
+            case CONDITION -> Byte.compare(CONDITION_RANK[conditions[a]], CONDITION_RANK[conditions[b]]);
+        };
+        return cmp != 0 ? cmp : Long.compare(ids[a], ids[b]);
+    }
+
+    // Position of the row in the sorted index, or -(insertion point + 1) when absent
+    private int search(ItemSort sort, int row) {
+        int[] index = sorted[sort.ordinal()];
+        int low = 0;
+        int high = rows - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(sort, index[mid], row);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void insertSorted(ItemSort sort, int row) {
+        int[] index = sorted[sort.ordinal()];
+        int at = -search(sort, row) - 1;
+        System.arraycopy(index, at, index, at + 1, rows - at);
+        index[at] = row;
+    }
+
+    private void removeRow(int row) {
+        int last = rows - 1;
+        for (ItemSort sort : SORTS) {
+            int[] index = sorted[sort.ordinal()];
+            int at = search(sort, row);
+            System.arraycopy(index, at + 1, index, at, last - at);
+        }
+        rows = last;
+        rowById.remove(ids[row]);
+        if (row == last) {
+            return;
+        }
+        // The last row moves into the freed slot, so its entries in the indexes are renumbered
+        for (ItemSort sort : SORTS) {
+            sorted[sort.ordinal()][search(sort, last)] = row;
+        }
+        ids[row] = ids[last];
+        names[row] = names[last];
+        prices[row] = prices[last];
+        categoryIds[row] = categoryIds[last];
+        conditions[row] = conditions[last];
+        createdAts[row] = createdAts[last];
+        rowById.put(ids[row], row);
+    }
+
+    private void ensureCapacity() {
+        if (rows < ids.length) {
+            return;
+        }
+        int capacity = ids.length + (ids.length >> 1);
+        ids = Arrays.copyOf(ids, capacity);
+        names = Arrays.copyOf(names, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        categoryIds = Arrays.copyOf(categoryIds, capacity);
+        conditions = Arrays.copyOf(conditions, capacity);
+        createdAts = Arrays.copyOf(createdAts, capacity);
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = Arrays.copyOf(sorted[i], capacity);
+        }
+    }
+
+    private void set(int row, Long id, String name, BigDecimal price, Long categoryId, Item.Condition condition,
+                     LocalDateTime createdAt) {
+        ids[row] = id;
+        names[row] = name.toLowerCase(Locale.ROOT);
+        prices[row] = toMinorUnits(price, RoundingMode.HALF_UP);
+        categoryIds[row] = Math.toIntExact(categoryId);
+        conditions[row] = (byte) condition.ordinal();
+        createdAts[row] = createdAt.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static long toMinorUnits(BigDecimal amount, RoundingMode rounding) {
+        return amount.movePointRight(2).setScale(0, rounding).longValueExact();
+    }
+
+    // Filters of one search in column form; -1 = no category or condition filter
+    private static final class RowFilter {
+
+        private final int categoryId;
+        private final byte condition;
+        private final long lower;
+        private final long upper;
+
+        private RowFilter(Long categoryId, Item.Condition condition, BigDecimal minPrice, BigDecimal maxPrice) {
+            this.categoryId = categoryId != null ? Math.toIntExact(categoryId) : -1;
+            this.condition = condition != null ? (byte) condition.ordinal() : -1;
+            this.lower = minPrice != null ? toMinorUnits(minPrice, RoundingMode.CEILING) : Long.MIN_VALUE;
+            this.upper = maxPrice != null ? toMinorUnits(maxPrice, RoundingMode.FLOOR) : Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.bookstore.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Term -> posting list of document ids, with a sorted term dictionary for prefix lookups
+public class InvertedIndex {
+    
+    private final NavigableMap<String, PostingList> postings = new TreeMap<>();
+    private final Map<Integer, Set<String>> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    public void put(int docId, Set<String> terms) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(docId);
+            for (String term : terms) {
+                postings.computeIfAbsent(term, t -> new PostingList()).add(docId);
+            }
+            documents.put(docId, terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(int docId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(docId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Documents containing, for every token, at least one term starting with that token
+    public int[] searchPrefixes(Collection<String> tokens) {
+        lock.readLock().lock();
+        try {
+            List<int[]> perToken = new ArrayList<>();
+            for (String token : tokens) {
+                int[] matches = unionPrefix(token);
+                if (matches.length == 0) {
+                    return matches;
+                }
+                perToken.add(matches);
+            }
+            if (perToken.isEmpty()) {
+                return new int[0];
+            }
+            // Intersect smallest lists first to keep the intermediate result small
+            perToken.sort((a, b) -> Integer.compare(a.length, b.length));
+            int[] result = perToken.get(0);
+            for (int i = 1; i < perToken.size() && result.length > 0; i++) {
+                result = PostingLists.intersect(result, perToken.get(i));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private int[] unionPrefix(String prefix) {
+        int[] result = new int[0];
+        for (PostingList list : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            result = PostingLists.union(result, list.toArray());
+        }
+        return result;
+    }
+    
+    private void removeDocument(int docId) {
+        Set<String> previous = documents.remove(docId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous) {
+            PostingList list = postings.get(term);
+            if (list != null && list.remove(docId) && list.size() == 0) {
+                postings.remove(term);
+            }
+        }
+    }
+}
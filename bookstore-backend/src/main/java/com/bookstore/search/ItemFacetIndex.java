@@ -0,0 +1,287 @@
+package com.bookstore.search;
+
+import com.bookstore.dto.FacetValueDto;
+import com.bookstore.dto.ItemDto;
+import com.bookstore.dto.PriceBucketDto;
+import com.bookstore.dto.SearchFacetsDto;
+import com.bookstore.entity.Item;
+import com.bookstore.event.CategoryChangedEvent;
+import com.bookstore.event.ItemChangedEvent;
+import com.bookstore.repository.ItemRepository;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Per-value bitmaps of available item ids (category, condition, price bucket) for facet counting
+@Component
+public class ItemFacetIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemFacetIndex.class);
+
+    private static final Item.Condition[] CONDITIONS = Item.Condition.values();
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    // Ascending bucket boundaries; bucket i covers [boundaries[i-1], boundaries[i])
+    private final BigDecimal[] priceBoundaries;
+
+    private final RoaringBitmap available = new RoaringBitmap();
+    private final Map<Long, RoaringBitmap> byCategory = new HashMap<>();
+    private final Map<Long, String> categoryNames = new HashMap<>();
+    private final RoaringBitmap[] byCondition = new RoaringBitmap[CONDITIONS.length];
+    private final RoaringBitmap[] byPriceBucket;
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+
+    public ItemFacetIndex(@Value("${search.facets.price-buckets:500,1000,2500,5000}") BigDecimal[] priceBoundaries) {
+        this.priceBoundaries = priceBoundaries.clone();
+        Arrays.sort(this.priceBoundaries);
+        this.byPriceBucket = new RoaringBitmap[this.priceBoundaries.length + 1];
+        for (int i = 0; i < byPriceBucket.length; i++) {
+            byPriceBucket[i] = new RoaringBitmap();
+        }
+        for (int i = 0; i < byCondition.length; i++) {
+            byCondition[i] = new RoaringBitmap();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        List<Object[]> rows = itemRepository.findAvailableFacetValues();
+        lock.writeLock().lock();
+        try {
+            available.clear();
+            byCategory.clear();
+            categoryNames.clear();
+            entries.clear();
+            Arrays.stream(byCondition).forEach(RoaringBitmap::clear);
+            Arrays.stream(byPriceBucket).forEach(RoaringBitmap::clear);
+            for (Object[] row : rows) {
+                add(Math.toIntExact((Long) row[0]), (BigDecimal) row[1], (Item.Condition) row[2],
+                    (Long) row[3], (String) row[4]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+        logger.info("Built facet bitmaps for {} items", rows.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onItemChanged(ItemChangedEvent event) {
+        int id = Math.toIntExact(event.getItemId());
+        lock.writeLock().lock();
+        try {
+            remove(id);
+            if (event.isListed()) {
+                ItemDto item = event.getItem();
+                add(id, item.getPrice(), item.getCondition(), item.getCategoryId(), item.getCategoryName());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Renames change facet labels and deletes cascade to items without item events; both are rare
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.getType() != CategoryChangedEvent.Type.CREATED) {
+            rebuild();
+        }
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<Item.Condition> getAvailableConditions() {
+        lock.readLock().lock();
+        try {
+            List<Item.Condition> conditions = new ArrayList<>();
+            for (Item.Condition condition : CONDITIONS) {
+                if (!byCondition[condition.ordinal()].isEmpty()) {
+                    conditions.add(condition);
+                }
+            }
+            return conditions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Counts for each facet value. Every facet applies all active filters except its own, so the
+    // counts show what selecting another value of that facet would return. textMatches null = no text filter.
+    public SearchFacetsDto facets(int[] textMatches, String category, Item.Condition condition,
+                                  BigDecimal minPrice, BigDecimal maxPrice) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap base = textMatches == null
+                ? available : RoaringBitmap.and(available, RoaringBitmap.bitmapOf(textMatches));
+            RoaringBitmap categoryFilter = category == null ? null : categoryBitmap(category);
+            RoaringBitmap conditionFilter = condition == null ? null : byCondition[condition.ordinal()];
+            RoaringBitmap priceFilter = (minPrice == null && maxPrice == null) ? null : priceRange(minPrice, maxPrice);
+
+            RoaringBitmap forCategories = intersect(base, conditionFilter, priceFilter);
+            List<FacetValueDto> categories = new ArrayList<>();
+            for (Map.Entry<Long, RoaringBitmap> entry : byCategory.entrySet()) {
+                long count = RoaringBitmap.andCardinality(forCategories, entry.getValue());
+                String name = categoryNames.get(entry.getKey());
+                categories.add(new FacetValueDto(name, name, count));
+            }
+            categories.sort((a, b) -> a.getLabel().compareToIgnoreCase(b.getLabel()));
+
+            RoaringBitmap forConditions = intersect(base, categoryFilter, priceFilter);
+            List<FacetValueDto> conditions = new ArrayList<>();
+            for (Item.Condition value : CONDITIONS) {
+                long count = RoaringBitmap.andCardinality(forConditions, byCondition[value.ordinal()]);
+                conditions.add(new FacetValueDto(value.name(), value.getDisplayName(), count));
+            }
+
+            RoaringBitmap forPrices = intersect(base, categoryFilter, conditionFilter);
+            List<PriceBucketDto> priceRanges = new ArrayList<>();
+            for (int i = 0; i < byPriceBucket.length; i++) {
+                long count = RoaringBitmap.andCardinality(forPrices, byPriceBucket[i]);
+                priceRanges.add(new PriceBucketDto(bucketMin(i), bucketMax(i), count));
+            }
+            return new SearchFacetsDto(categories, conditions, priceRanges);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Number of available items passing every filter; textMatches null = no text filter
+    public long count(int[] textMatches, String category, Item.Condition condition,
+                      BigDecimal minPrice, BigDecimal maxPrice) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap base = textMatches == null
+                ? available : RoaringBitmap.and(available, RoaringBitmap.bitmapOf(textMatches));
+            return intersect(base,
+                category == null ? null : categoryBitmap(category),
+                condition == null ? null : byCondition[condition.ordinal()],
+                (minPrice == null && maxPrice == null) ? null : priceRange(minPrice, maxPrice)).getLongCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap intersect(RoaringBitmap base, RoaringBitmap... filters) {
+        RoaringBitmap result = base;
+        for (RoaringBitmap filter : filters) {
+            if (filter != null) {
+                result = RoaringBitmap.and(result, filter);
+            }
+        }
+        return result;
+    }
+
+    private RoaringBitmap categoryBitmap(String name) {
+        for (Map.Entry<Long, String> entry : categoryNames.entrySet()) {
+            if (entry.getValue().equals(name)) {
+                return byCategory.get(entry.getKey());
+            }
+        }
+        return new RoaringBitmap();
+    }
+
+    // Whole buckets inside the range are OR-ed; only the boundary buckets are checked id by id
+    private RoaringBitmap priceRange(BigDecimal min, BigDecimal max) {
+        RoaringBitmap result = new RoaringBitmap();
+        for (int i = 0; i < byPriceBucket.length; i++) {
+            BigDecimal low = bucketMin(i);
+            BigDecimal high = bucketMax(i);
+            boolean disjoint = (max != null && low != null && low.compareTo(max) > 0)
+                || (min != null && high != null && high.compareTo(min) <= 0);
+            if (disjoint) {
+                continue;
+            }
+            boolean inside = (min == null || (low != null && low.compareTo(min) >= 0))
+                && (max == null || (high != null && high.compareTo(max) <= 0));
+            if (inside) {
+                result.or(byPriceBucket[i]);
+            } else {
+                for (int id : byPriceBucket[i]) {
+                    BigDecimal price = entries.get(id).price;
+                    if ((min == null || price.compareTo(min) >= 0) && (max == null || price.compareTo(max) <= 0)) {
+                        result.add(id);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private BigDecimal bucketMin(int bucket) {
+        return bucket == 0 ? null : priceBoundaries[bucket - 1];
+    }
+
+    private BigDecimal bucketMax(int bucket) {
+        return bucket == priceBoundaries.length ? null : priceBoundaries[bucket];
+    }
+
+    private int bucketOf(BigDecimal price) {
+        int bucket = 0;
+        while (bucket < priceBoundaries.length && price.compareTo(priceBoundaries[bucket]) >= 0) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private void add(int id, BigDecimal price, Item.Condition condition, Long categoryId, String categoryName) {
+        int bucket = bucketOf(price);
+        available.add(id);
+        byCategory.computeIfAbsent(categoryId, c -> new RoaringBitmap()).add(id);
+        categoryNames.put(categoryId, categoryName);
+        byCondition[condition.ordinal()].add(id);
+        byPriceBucket[bucket].add(id);
+        entries.put(id, new Entry(categoryId, condition, price, bucket));
+    }
+
+    private void remove(int id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        available.remove(id);
+        RoaringBitmap categoryItems = byCategory.get(entry.categoryId);
+        categoryItems.remove(id);
+        if (categoryItems.isEmpty()) {
+            byCategory.remove(entry.categoryId);
+            categoryNames.remove(entry.categoryId);
+        }
+        byCondition[entry.condition.ordinal()].remove(id);
+        byPriceBucket[entry.bucket].remove(id);
+    }
+
+    private static final class Entry {
+        private final Long categoryId;
+        private final Item.Condition condition;
+        private final BigDecimal price;
+        private final int bucket;
+
+        private Entry(Long categoryId, Item.Condition condition, BigDecimal price, int bucket) {
+            this.categoryId = categoryId;
+            this.condition = condition;
+            this.price = price;
+            this.bucket = bucket;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.bookstore.search;
+
+import com.bookstore.event.CategoryChangedEvent;
+import com.bookstore.event.ItemChangedEvent;
+import com.bookstore.repository.ItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// In-memory inverted index over the name and description of available items
+@Component
+public class ItemTextIndex {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ItemTextIndex.class);
+    
+    @Autowired
+    private ItemRepository itemRepository;
+    
+    @Value("${search.index.max-candidates:10000}")
+    private int maxCandidates;
+    
+    private final InvertedIndex index = new InvertedIndex();
+    
+    private volatile boolean ready;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        index.clear();
+        for (Object[] row : itemRepository.findAvailableSearchText()) {
+            index.put(Math.toIntExact((Long) row[0]), TextTokenizer.terms((String) row[1], (String) row[2]));
+        }
+        ready = true;
+        logger.info("Indexed {} items for text search", index.size());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onItemChanged(ItemChangedEvent event) {
+        int id = Math.toIntExact(event.getItemId());
+        if (event.isListed()) {
+            index.put(id, TextTokenizer.terms(event.getItem().getName(), event.getItem().getDescription()));
+        } else {
+            index.remove(id);
+        }
+    }
+    
+    // Deleting a category cascades to its items without publishing item events
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.getType() == CategoryChangedEvent.Type.DELETED) {
+            rebuild();
+        }
+    }
+    
+    // Ids of items matching every token of the text (as word prefixes), in ascending order.
+    // Empty when the caller should fall back to SQL: index not built yet, or too many candidates.
+    // SQL matches the term as a substring, so the fallback can return items this index would not.
+    public Optional<List<Long>> search(String text) {
+        Optional<int[]> matches = matchIds(text);
+        if (matches.isEmpty() || matches.get().length > maxCandidates) {
+            return Optional.empty();
+        }
+        List<Long> ids = new ArrayList<>(matches.get().length);
+        for (int id : matches.get()) {
+            ids.add((long) id);
+        }
+        return Optional.of(ids);
+    }
+    
+    // Same matching as search, without the candidate limit; empty when the index cannot answer
+    public Optional<int[]> matchIds(String text) {
+        List<String> tokens = TextTokenizer.tokenize(text);
+        if (!ready || tokens.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(index.searchPrefixes(tokens));
+    }
+}
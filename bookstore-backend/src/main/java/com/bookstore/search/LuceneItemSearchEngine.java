@@ -0,0 +1,280 @@
+package com.bookstore.search;
+
+import com.bookstore.dto.ItemDto;
+import com.bookstore.entity.Item;
+import com.bookstore.event.CategoryChangedEvent;
+import com.bookstore.event.ItemChangedEvent;
+import com.bookstore.repository.ItemRepository;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedSetSortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Embedded Lucene index of available items, enabled with search.engine=lucene
+@Component
+@ConditionalOnProperty(name = "search.engine", havingValue = "lucene")
+public class LuceneItemSearchEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(LuceneItemSearchEngine.class);
+
+    private static final String ID = "id";
+    private static final String NAME = "name";
+    private static final String DESCRIPTION = "description";
+    private static final String NAME_SORT = "name_sort";
+    private static final String PRICE = "price";
+    private static final String CATEGORY = "category";
+    private static final String CONDITION = "condition";
+    private static final String CREATED_AT = "createdAt";
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final FSDirectory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    private volatile boolean ready;
+
+    public LuceneItemSearchEngine(@Value("${search.lucene.directory}") String indexDirectory) throws IOException {
+        this.directory = FSDirectory.open(Paths.get(indexDirectory));
+        IndexWriterConfig config = new IndexWriterConfig(analyzer);
+        config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        this.writer = new IndexWriter(directory, config);
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    // The database is the source of truth, so the index is rebuilt from it on every start
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() throws IOException {
+        writer.deleteAll();
+        List<Item> items = itemRepository.findAvailableWithCategory();
+        for (Item item : items) {
+            writer.addDocument(toDocument(item.getId(), item.getName(), item.getDescription(), item.getPrice(),
+                item.getCondition(), item.getCreatedAt(), item.getCategory().getName()));
+        }
+        writer.commit();
+        searcherManager.maybeRefreshBlocking();
+        ready = true;
+        logger.info("Indexed {} items into Lucene at {}", items.size(), directory.getDirectory());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onItemChanged(ItemChangedEvent event) throws IOException {
+        Term idTerm = new Term(ID, String.valueOf(event.getItemId()));
+        if (event.isListed()) {
+            ItemDto item = event.getItem();
+            writer.updateDocument(idTerm, toDocument(item.getId(), item.getName(), item.getDescription(),
+                item.getPrice(), item.getCondition(), item.getCreatedAt(), item.getCategoryName()));
+        } else {
+            writer.deleteDocuments(idTerm);
+        }
+        // Near-real-time: make the change searchable without a full commit
+        searcherManager.maybeRefreshBlocking();
+    }
+
+    // Category names are indexed for filtering and category deletes cascade to items without item events
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) throws IOException {
+        if (event.getType() != CategoryChangedEvent.Type.CREATED) {
+            rebuild();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Ids of the requested page; sort "relevance" ranks by BM25 score, other properties sort on doc values
+    public Page<Long> search(String category, Item.Condition condition, BigDecimal minPrice, BigDecimal maxPrice,
+                             String searchTerm, Pageable pageable) {
+        Query query = buildQuery(category, condition, minPrice, maxPrice, searchTerm);
+        int end = (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                int total = searcher.count(query);
+                TopDocs topDocs = end == 0 ? null : searcher.search(query, end, toLuceneSort(pageable, searchTerm != null));
+                List<Long> ids = new ArrayList<>();
+                if (topDocs != null) {
+                    ScoreDoc[] hits = topDocs.scoreDocs;
+                    for (int i = (int) pageable.getOffset(); i < hits.length; i++) {
+                        Document document = searcher.storedFields().document(hits[i].doc);
+                        ids.add(Long.valueOf(document.get(ID)));
+                    }
+                }
+                return new PageImpl<>(ids, pageable, total);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Search failed", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    private Query buildQuery(String category, Item.Condition condition, BigDecimal minPrice, BigDecimal maxPrice,
+                             String searchTerm) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        boolean hasClause = false;
+        if (searchTerm != null) {
+            List<String> tokens = analyze(searchTerm);
+            for (int i = 0; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                // The last token may still be being typed, so it also matches as a prefix
+                boolean last = i == tokens.size() - 1;
+                BooleanQuery.Builder tokenQuery = new BooleanQuery.Builder()
+                    .add(new BoostQuery(termOrPrefix(NAME, token, last), 2.0f), BooleanClause.Occur.SHOULD)
+                    .add(termOrPrefix(DESCRIPTION, token, last), BooleanClause.Occur.SHOULD);
+                builder.add(tokenQuery.build(), BooleanClause.Occur.MUST);
+                hasClause = true;
+            }
+        }
+        if (category != null) {
+            builder.add(new TermQuery(new Term(CATEGORY, category)), BooleanClause.Occur.FILTER);
+            hasClause = true;
+        }
+        if (condition != null) {
+            builder.add(new TermQuery(new Term(CONDITION, condition.name())), BooleanClause.Occur.FILTER);
+            hasClause = true;
+        }
+        if (minPrice != null || maxPrice != null) {
+            long lower = minPrice != null ? toMinorUnits(minPrice, RoundingMode.CEILING) : Long.MIN_VALUE;
+            long upper = maxPrice != null ? toMinorUnits(maxPrice, RoundingMode.FLOOR) : Long.MAX_VALUE;
+            builder.add(LongPoint.newRangeQuery(PRICE, lower, upper), BooleanClause.Occur.FILTER);
+            hasClause = true;
+        }
+        if (!hasClause) {
+            return new MatchAllDocsQuery();
+        }
+        return builder.build();
+    }
+
+    private Query termOrPrefix(String field, String token, boolean prefix) {
+        Term term = new Term(field, token);
+        return prefix ? new PrefixQuery(term) : new TermQuery(term);
+    }
+
+    private Sort toLuceneSort(Pageable pageable, boolean hasText) {
+        List<SortField> fields = new ArrayList<>();
+        boolean descending = false;
+        for (org.springframework.data.domain.Sort.Order order : pageable.getSort()) {
+            descending = order.isDescending();
+            switch (order.getProperty()) {
+                case "relevance" -> {
+                    if (hasText) {
+                        fields.add(SortField.FIELD_SCORE);
+                    } else {
+                        fields.add(new SortField(CREATED_AT, SortField.Type.LONG, true));
+                        descending = true;
+                    }
+                }
+                case "createdAt" -> fields.add(new SortField(CREATED_AT, SortField.Type.LONG, descending));
+                case "price" -> fields.add(new SortField(PRICE, SortField.Type.LONG, descending));
+                case "name" -> fields.add(new SortField(NAME_SORT, SortField.Type.STRING, descending));
+                case "condition" -> fields.add(new SortedSetSortField(CONDITION, descending));
+                case "id" -> { }
+                default -> throw new RuntimeException("Unsupported sort field for search: " + order.getProperty());
+            }
+        }
+        fields.add(new SortField(ID, SortField.Type.LONG, descending));
+        return new Sort(fields.toArray(new SortField[0]));
+    }
+
+    private List<String> analyze(String text) {
+        List<String> tokens = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream(NAME, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                tokens.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return tokens;
+    }
+
+    private Document toDocument(Long id, String name, String description, BigDecimal price,
+                                Item.Condition condition, LocalDateTime createdAt, String categoryName) {
+        Document document = new Document();
+        document.add(new StringField(ID, String.valueOf(id), Field.Store.YES));
+        document.add(new NumericDocValuesField(ID, id));
+        document.add(new TextField(NAME, name, Field.Store.NO));
+        document.add(new SortedDocValuesField(NAME_SORT, new BytesRef(name.toLowerCase(Locale.ROOT))));
+        if (description != null) {
+            document.add(new TextField(DESCRIPTION, description, Field.Store.NO));
+        }
+        long priceMinor = toMinorUnits(price, RoundingMode.HALF_UP);
+        document.add(new LongPoint(PRICE, priceMinor));
+        document.add(new NumericDocValuesField(PRICE, priceMinor));
+        document.add(new StringField(CATEGORY, categoryName, Field.Store.NO));
+        document.add(new SortedSetDocValuesField(CATEGORY, new BytesRef(categoryName)));
+        document.add(new StringField(CONDITION, condition.name(), Field.Store.NO));
+        document.add(new SortedSetDocValuesField(CONDITION, new BytesRef(condition.name())));
+        document.add(new NumericDocValuesField(CREATED_AT, createdAt.toInstant(ZoneOffset.UTC).toEpochMilli()));
+        return document;
+    }
+
+    private static long toMinorUnits(BigDecimal amount, RoundingMode rounding) {
+        return amount.movePointRight(2).setScale(0, rounding).longValueExact();
+    }
+}
@@ -0,0 +1,101 @@
+package com.bookstore.search;
+
+import java.util.Arrays;
+
+// Sorted document ids stored as delta-encoded varints; appends in id order are O(1)
+final class PostingList {
+    
+    private byte[] data = new byte[8];
+    private int length;
+    private int size;
+    private int last;
+    
+    PostingList() {}
+    
+    PostingList(int[] sortedIds) {
+        for (int id : sortedIds) {
+            append(id);
+        }
+    }
+    
+    void add(int id) {
+        if (size == 0 || id > last) {
+            append(id);
+            return;
+        }
+        int[] ids = toArray();
+        int position = Arrays.binarySearch(ids, id);
+        if (position >= 0) {
+            return;
+        }
+        int insertAt = -position - 1;
+        int[] updated = new int[ids.length + 1];
+        System.arraycopy(ids, 0, updated, 0, insertAt);
+        updated[insertAt] = id;
+        System.arraycopy(ids, insertAt, updated, insertAt + 1, ids.length - insertAt);
+        reset(updated);
+    }
+    
+    boolean remove(int id) {
+        if (size == 0 || id > last) {
+            return false;
+        }
+        int[] ids = toArray();
+        int position = Arrays.binarySearch(ids, id);
+        if (position < 0) {
+            return false;
+        }
+        int[] updated = new int[ids.length - 1];
+        System.arraycopy(ids, 0, updated, 0, position);
+        System.arraycopy(ids, position + 1, updated, position, ids.length - position - 1);
+        reset(updated);
+        return true;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    int[] toArray() {
+        int[] ids = new int[size];
+        int offset = 0;
+        int previous = 0;
+        for (int i = 0; i < size; i++) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[offset++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            previous += delta;
+            ids[i] = previous;
+        }
+        return ids;
+    }
+    
+    private void reset(int[] sortedIds) {
+        data = new byte[Math.max(8, sortedIds.length * 2)];
+        length = 0;
+        size = 0;
+        last = 0;
+        for (int id : sortedIds) {
+            append(id);
+        }
+    }
+    
+    private void append(int id) {
+        int delta = id - last;
+        if (length + 5 > data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+        while ((delta & ~0x7F) != 0) {
+            data[length++] = (byte) ((delta & 0x7F) | 0x80);
+            delta >>>= 7;
+        }
+        data[length++] = (byte) delta;
+        last = id;
+        size++;
+    }
+}
@@ -0,0 +1,303 @@
+package com.bookstore.search;
+
+import com.bookstore.dto.ItemDto;
+import com.bookstore.dto.SuggestionDto;
+import com.bookstore.entity.Category;
+import com.bookstore.event.CategoryChangedEvent;
+import com.bookstore.event.ItemChangedEvent;
+import com.bookstore.repository.CategoryRepository;
+import com.bookstore.repository.ItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Prefix autocomplete over item and category names. Every word start of a name is a key in a
+// character trie, and every node caches its best suggestions, so a lookup is one walk down the
+// trie. Writes recompute the cached lists only along the paths of the names they touch.
+@Component
+public class SuggestionIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuggestionIndex.class);
+
+    // Ranked by number of available items, then alphabetically
+    private static final Comparator<Suggestion> RANKING = Comparator
+        .comparingInt((Suggestion suggestion) -> suggestion.count).reversed()
+        .thenComparing(suggestion -> suggestion.text, String.CASE_INSENSITIVE_ORDER);
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Value("${search.suggest.max-results:10}")
+    private int maxResults;
+
+    private Node root = new Node();
+    private final Map<String, Suggestion> itemNames = new HashMap<>();
+    private final Map<Long, Suggestion> categories = new HashMap<>();
+    private final Map<Long, ListedItem> listedItems = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        List<Category> allCategories = categoryRepository.findAll();
+        List<Object[]> rows = itemRepository.findAvailableSuggestValues();
+        lock.writeLock().lock();
+        try {
+            root = new Node();
+            itemNames.clear();
+            categories.clear();
+            listedItems.clear();
+            for (Category category : allCategories) {
+                Suggestion suggestion = new Suggestion(category.getName(), SuggestionDto.Type.CATEGORY);
+                categories.put(category.getId(), suggestion);
+                insert(suggestion);
+            }
+            for (Object[] row : rows) {
+                Suggestion name = itemNames.computeIfAbsent(normalize((String) row[1]), key -> {
+                    Suggestion suggestion = new Suggestion((String) row[1], SuggestionDto.Type.ITEM);
+                    insert(suggestion);
+                    return suggestion;
+                });
+                name.count++;
+                Suggestion category = categories.get((Long) row[2]);
+                if (category != null) {
+                    category.count++;
+                }
+                listedItems.put((Long) row[0], new ListedItem(name, (Long) row[2]));
+            }
+            computeTop(root);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+        logger.info("Built suggestion trie for {} item names and {} categories", itemNames.size(), categories.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onItemChanged(ItemChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            Set<Suggestion> changed = new LinkedHashSet<>();
+            ListedItem previous = listedItems.remove(event.getItemId());
+            if (previous != null) {
+                previous.name.count--;
+                changed.add(previous.name);
+                Suggestion category = categories.get(previous.categoryId);
+                if (category != null) {
+                    category.count--;
+                    changed.add(category);
+                }
+            }
+            if (event.isListed()) {
+                ItemDto item = event.getItem();
+                Suggestion name = itemNames.computeIfAbsent(normalize(item.getName()), key -> {
+                    Suggestion suggestion = new Suggestion(item.getName(), SuggestionDto.Type.ITEM);
+                    insert(suggestion);
+                    return suggestion;
+                });
+                name.count++;
+                changed.add(name);
+                Suggestion category = categories.get(item.getCategoryId());
+                if (category != null) {
+                    category.count++;
+                    changed.add(category);
+                }
+                listedItems.put(event.getItemId(), new ListedItem(name, item.getCategoryId()));
+            }
+            for (Suggestion suggestion : changed) {
+                if (suggestion.type == SuggestionDto.Type.ITEM && suggestion.count == 0) {
+                    itemNames.remove(normalize(suggestion.text));
+                    delete(suggestion);
+                }
+                refreshPaths(suggestion);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Category writes are rare; renames and deletes (which cascade to items) are simplest to rebuild
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        rebuild();
+    }
+
+    // Best suggestions whose name, or a word within it, starts with the prefix; never queries the database
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (!ready || key.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            List<SuggestionDto> suggestions = new ArrayList<>();
+            for (Suggestion suggestion : node.top) {
+                if (suggestions.size() == Math.min(limit, maxResults)) {
+                    break;
+                }
+                suggestions.add(new SuggestionDto(suggestion.text, suggestion.type, suggestion.count));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void insert(Suggestion suggestion) {
+        for (String key : keys(suggestion.text)) {
+            Node node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.getOrAddChild(key.charAt(i));
+            }
+            node.terminals.add(suggestion);
+        }
+    }
+
+    private void delete(Suggestion suggestion) {
+        for (String key : keys(suggestion.text)) {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node != null) {
+                node.terminals.remove(suggestion);
+            }
+        }
+    }
+
+    // Recomputes the cached lists bottom-up along every key path of the suggestion
+    private void refreshPaths(Suggestion suggestion) {
+        for (String key : keys(suggestion.text)) {
+            Node[] path = new Node[key.length() + 1];
+            path[0] = root;
+            int depth = 0;
+            while (depth < key.length() && path[depth] != null) {
+                path[depth + 1] = path[depth].child(key.charAt(depth));
+                depth++;
+            }
+            for (int i = depth; i >= 0; i--) {
+                if (path[i] != null) {
+                    path[i].top = merge(path[i]);
+                }
+            }
+        }
+    }
+
+    private void computeTop(Node node) {
+        for (Node child : node.children) {
+            computeTop(child);
+        }
+        node.top = merge(node);
+    }
+
+    // A name can sit under a node through several of its words, so candidates are de-duplicated
+    private Suggestion[] merge(Node node) {
+        Set<Suggestion> candidates = new LinkedHashSet<>(node.terminals);
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        return candidates.stream()
+            .filter(suggestion -> suggestion.count > 0 || suggestion.type == SuggestionDto.Type.CATEGORY)
+            .sorted(RANKING)
+            .limit(maxResults)
+            .toArray(Suggestion[]::new);
+    }
+
+    // The name itself plus the rest of the name from every later word, e.g. "computer science"
+    // and "science" for "Computer Science"
+    private static List<String> keys(String text) {
+        List<String> tokens = TextTokenizer.tokenize(text);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            keys.add(String.join(" ", tokens.subList(i, tokens.size())));
+        }
+        return keys;
+    }
+
+    private static String normalize(String text) {
+        return String.join(" ", TextTokenizer.tokenize(text));
+    }
+
+    private static final class Suggestion {
+        private final String text;
+        private final SuggestionDto.Type type;
+        private int count;
+
+        private Suggestion(String text, SuggestionDto.Type type) {
+            this.text = text;
+            this.type = type;
+        }
+    }
+
+    private static final class ListedItem {
+        private final Suggestion name;
+        private final Long categoryId;
+
+        private ListedItem(Suggestion name, Long categoryId) {
+            this.name = name;
+            this.categoryId = categoryId;
+        }
+    }
+
+    // Children are kept in parallel arrays sorted by character instead of a map per node
+    private static final class Node {
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final Suggestion[] NO_SUGGESTIONS = new Suggestion[0];
+
+        private char[] keys = new char[0];
+        private Node[] children = NO_CHILDREN;
+        private final List<Suggestion> terminals = new ArrayList<>(1);
+        private Suggestion[] top = NO_SUGGESTIONS;
+
+        private Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node getOrAddChild(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = c;
+            newChildren[insertAt] = new Node();
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            keys = newKeys;
+            children = newChildren;
+            return newChildren[insertAt];
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.bookstore.search;
+
+import com.bookstore.event.CategoryChangedEvent;
+import com.bookstore.event.ItemChangedEvent;
+import com.bookstore.repository.ItemRepository;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Trigram index over the names of available items for typo-tolerant search. Similarity is the share
+// of the query's trigrams found in the name, so extra words in a title do not lower the score.
+@Component
+public class TrigramIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrigramIndex.class);
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Value("${search.fuzzy.similarity-threshold:0.5}")
+    private double threshold;
+
+    // Most matches returned per query, the best scores kept, so ranking and paging the result stay
+    // cheap for terms that match a large part of the catalog
+    @Value("${search.fuzzy.max-results:2000}")
+    private int maxResults;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<RoaringBitmap> postings = new ArrayList<>();
+    private final Map<Integer, int[]> itemTrigrams = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        List<Object[]> rows = itemRepository.findAvailableSearchText();
+        lock.writeLock().lock();
+        try {
+            codes.clear();
+            postings.clear();
+            itemTrigrams.clear();
+            for (Object[] row : rows) {
+                add(Math.toIntExact((Long) row[0]), (String) row[1]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+        logger.info("Built name trigrams for {} items ({} distinct trigrams)", rows.size(), codes.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onItemChanged(ItemChangedEvent event) {
+        int id = Math.toIntExact(event.getItemId());
+        lock.writeLock().lock();
+        try {
+            remove(id);
+            if (event.isListed()) {
+                add(id, event.getItem().getName());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Deleting a category cascades to its items without publishing item events
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.getType() == CategoryChangedEvent.Type.DELETED) {
+            rebuild();
+        }
+    }
+
+    // Similarity by item id for names at or above the threshold, best first and at most maxResults of
+    // them (on equal scores the newer item is kept); empty while not built
+    public Optional<Map<Long, Double>> search(String text) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        Set<String> queryTrigrams = trigrams(text);
+        Map<Long, Double> result = new LinkedHashMap<>();
+        if (queryTrigrams.isEmpty()) {
+            return Optional.of(result);
+        }
+        lock.readLock().lock();
+        try {
+            List<Integer> known = new ArrayList<>();
+            for (String trigram : queryTrigrams) {
+                Integer code = codes.get(trigram);
+                if (code != null) {
+                    known.add(code);
+                }
+            }
+            // A name reaching the threshold shares at least minShared query trigrams, so it must
+            // occur in one of the (known - minShared + 1) rarest posting lists
+            int minShared = Math.max(1, (int) Math.ceil(threshold * queryTrigrams.size()));
+            int prefix = known.size() - minShared + 1;
+            if (prefix <= 0) {
+                return Optional.of(result);
+            }
+            known.sort(Comparator.comparingInt(code -> postings.get(code).getCardinality()));
+            RoaringBitmap candidates = new RoaringBitmap();
+            for (int i = 0; i < prefix; i++) {
+                candidates.or(postings.get(known.get(i)));
+            }
+
+            // Every candidate is scored; a heap with the weakest match on top keeps the best maxResults
+            int[] query = known.stream().mapToInt(Integer::intValue).sorted().toArray();
+            Comparator<Map.Entry<Long, Double>> weakestFirst = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey());
+            PriorityQueue<Map.Entry<Long, Double>> best = new PriorityQueue<>(weakestFirst);
+            IntIterator it = candidates.getIntIterator();
+            while (it.hasNext()) {
+                int id = it.next();
+                double similarity = (double) countShared(query, itemTrigrams.get(id)) / queryTrigrams.size();
+                if (similarity < threshold) {
+                    continue;
+                }
+                Map.Entry<Long, Double> match = Map.entry((long) id, similarity);
+                if (best.size() < maxResults) {
+                    best.add(match);
+                } else if (weakestFirst.compare(match, best.peek()) > 0) {
+                    best.poll();
+                    best.add(match);
+                }
+            }
+            List<Map.Entry<Long, Double>> scored = new ArrayList<>(best);
+            scored.sort(weakestFirst.reversed());
+            for (Map.Entry<Long, Double> entry : scored) {
+                result.put(entry.getKey(), entry.getValue());
+            }
+            return Optional.of(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(int id, String name) {
+        Set<String> trigrams = trigrams(name);
+        int[] nameCodes = new int[trigrams.size()];
+        int i = 0;
+        for (String trigram : trigrams) {
+            int code = codes.computeIfAbsent(trigram, t -> {
+                postings.add(new RoaringBitmap());
+                return postings.size() - 1;
+            });
+            postings.get(code).add(id);
+            nameCodes[i++] = code;
+        }
+        Arrays.sort(nameCodes);
+        itemTrigrams.put(id, nameCodes);
+    }
+
+    private void remove(int id) {
+        int[] nameCodes = itemTrigrams.remove(id);
+        if (nameCodes == null) {
+            return;
+        }
+        for (int code : nameCodes) {
+            postings.get(code).remove(id);
+        }
+    }
+
+    // Both arrays are sorted and free of duplicates
+    private static int countShared(int[] a, int[] b) {
+        int shared = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return shared;
+    }
+
+    // Each word is padded with two leading blanks and one trailing blank, so short words and word
+    // starts still produce trigrams
+    private static Set<String> trigrams(String text) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (String token : TextTokenizer.tokenize(text)) {
+            String padded = "  " + token + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+}
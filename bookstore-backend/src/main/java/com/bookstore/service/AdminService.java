@@ -10,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -27,6 +28,7 @@ public class AdminService {
     @Autowired
     private CategoryRepository categoryRepository;
     
+    @Transactional(readOnly = true)
     public AdminStatsDto getAdminStats() {
         Long totalUsers = userRepository.count();
         Long totalItems = itemRepository.count();
@@ -45,6 +47,7 @@ public class AdminService {
         );
     }
     
+    @Transactional(readOnly = true)
     public Page<UserAnalyticsDto> getAllUsers(Pageable pageable) {
         return userRepository.findAll(pageable)
             .map(user -> {
@@ -63,6 +66,7 @@ public class AdminService {
             });
     }
     
+    @Transactional(readOnly = true)
     public List<UserAnalyticsDto> getAllUsersList() {
         return userRepository.findAll().stream()
             .map(user -> {
@@ -0,0 +1,139 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.ItemDto;
+import com.bookstore.entity.User;
+import com.bookstore.repository.ItemRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Writes the item and user tables to a response as CSV or NDJSON. Rows come from a forward-only
+// cursor and go straight to a buffered writer, so heap use does not grow with the table size.
+@Service
+public class CatalogExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // CSV columns match the ItemDto fields read by POST /api/items/import
+    private static final List<String> ITEM_COLUMNS = List.of("id", "name", "price", "imageUrl", "imageWidth",
+        "imageHeight", "imagePlaceholder", "condition", "description", "categoryName", "categoryId", "isAvailable",
+        "createdAt", "updatedAt", "sellerId", "sellerEmail");
+
+    // Passwords are never exported
+    private static final List<String> USER_COLUMNS = List.of("id", "fullName", "email", "role", "createdAt",
+        "updatedAt");
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // Set on the export queries only; Integer.MIN_VALUE makes MySQL Connector/J stream rows one by one
+    @Value("${items.export.fetch-size:500}")
+    private int fetchSize;
+
+    public CatalogExportService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public void exportItems(DataFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writeHeader(writer, format, ITEM_COLUMNS);
+        // DTO rows are not managed entities, so the persistence context stays empty
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<ItemDto> items = entityManager
+                    .createQuery(ItemRepository.ITEM_DTO_SELECT + "ORDER BY i.id", ItemDto.class)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                    .getResultStream()) {
+                items.forEach(item -> writeRow(writer, format, ITEM_COLUMNS, item.getId(), item.getName(),
+                    item.getPrice(), item.getImageUrl(), item.getImageWidth(), item.getImageHeight(),
+                    item.getImagePlaceholder(), item.getCondition(), item.getDescription(),
+                    item.getCategoryName(), item.getCategoryId(), item.getIsAvailable(), item.getCreatedAt(),
+                    item.getUpdatedAt(), item.getSellerId(), item.getSellerEmail()));
+            }
+        });
+        writer.flush();
+    }
+
+    public void exportUsers(DataFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writeHeader(writer, format, USER_COLUMNS);
+        transactionTemplate.executeWithoutResult(status -> {
+            // Read-only entities skip dirty checking
+            try (Stream<User> users = entityManager.createQuery("SELECT u FROM User u ORDER BY u.id", User.class)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .getResultStream()) {
+                users.forEach(user -> {
+                    writeRow(writer, format, USER_COLUMNS, user.getId(), user.getFullName(), user.getEmail(),
+                        user.getRole(), user.getCreatedAt(), user.getUpdatedAt());
+                    // Written rows are dropped from the persistence context so it does not grow with the table
+                    entityManager.detach(user);
+                });
+            }
+        });
+        writer.flush();
+    }
+
+    private void writeHeader(Writer writer, DataFormat format, List<String> columns) throws IOException {
+        if (format == DataFormat.CSV) {
+            writer.write(String.join(",", columns));
+            writer.write('\n');
+        }
+    }
+
+    private void writeRow(Writer writer, DataFormat format, List<String> columns, Object... values) {
+        try {
+            if (format == DataFormat.CSV) {
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    writer.write(csvValue(values[i]));
+                }
+            } else {
+                Map<String, Object> row = new LinkedHashMap<>();
+                for (int i = 0; i < values.length; i++) {
+                    row.put(columns.get(i), values[i]);
+                }
+                writer.write(objectMapper.writeValueAsString(row));
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            // The client went away; the cursor is closed when the exception leaves the stream
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        boolean quote = text.chars().anyMatch(c -> c == ',' || c == '"' || c == '\n' || c == '\r');
+        return quote ? '"' + text.replace("\"", "\"\"") + '"' : text;
+    }
+}
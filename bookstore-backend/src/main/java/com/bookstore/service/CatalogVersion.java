@@ -0,0 +1,105 @@
+package com.bookstore.service;
+
+import com.bookstore.event.CategoryChangedEvent;
+import com.bookstore.event.ItemChangedEvent;
+import com.bookstore.event.ItemImageDetailsChangedEvent;
+import com.bookstore.event.ItemImagesMovedEvent;
+import com.bookstore.event.UserChangedEvent;
+import com.bookstore.repository.ItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Write counters behind the ETag/Last-Modified validators of the item endpoints, so a
+// conditional GET can be answered without running the listing query
+@Component
+public class CatalogVersion {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    // Seeded from the clock so versions keep increasing across restarts
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+    private final AtomicLong referenceVersion = new AtomicLong(System.currentTimeMillis());
+
+    private volatile long lastModified = System.currentTimeMillis();
+    private volatile long referenceModified = System.currentTimeMillis();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        LocalDateTime latest = itemRepository.findLastModified();
+        if (latest != null) {
+            lastModified = toMillis(latest);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        touch();
+    }
+
+    // Listings and item details carry category names
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        touchReferences();
+    }
+
+    // Image URLs rewritten by the upload migration, which does not touch updatedAt
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemImagesMoved(ItemImagesMovedEvent event) {
+        touchReferences();
+    }
+
+    // Image sizes and placeholders are filled in later without touching updatedAt
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemImageDetailsChanged(ItemImageDetailsChangedEvent event) {
+        touchReferences();
+    }
+
+    // Listings and item details carry seller names and emails
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        touchReferences();
+    }
+
+    // Validator for listing and search responses, which may change with any catalog write
+    public String getListEtag() {
+        return "\"items-" + version.get() + "\"";
+    }
+
+    public long getListLastModified() {
+        return lastModified;
+    }
+
+    // Validator for a single item: its own timestamp plus the version of the rows it references
+    public String getItemEtag(Long id, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        LocalDateTime changed = updatedAt != null ? updatedAt : createdAt;
+        return "\"item-" + id + "-" + toMillis(changed) + "-" + referenceVersion.get() + "\"";
+    }
+
+    public long getItemLastModified(LocalDateTime createdAt, LocalDateTime updatedAt) {
+        LocalDateTime changed = updatedAt != null ? updatedAt : createdAt;
+        return Math.max(toMillis(changed), referenceModified);
+    }
+
+    private void touch() {
+        version.incrementAndGet();
+        lastModified = System.currentTimeMillis();
+    }
+
+    private void touchReferences() {
+        referenceVersion.incrementAndGet();
+        referenceModified = System.currentTimeMillis();
+        touch();
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,117 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.CategoryDto;
+import com.bookstore.event.CategoryChangedEvent;
+import com.bookstore.repository.CategoryRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Immutable in-memory copy of all categories, rebuilt only when a category is written
+@Component
+public class CategoryCatalog {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Seeded from the clock so versions keep increasing across restarts
+    private final AtomicLong versions = new AtomicLong(System.currentTimeMillis());
+
+    private volatile Snapshot snapshot;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        rebuild();
+    }
+
+    public Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            rebuild();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    private synchronized void rebuild() {
+        List<CategoryDto> categories = categoryRepository.findAll().stream()
+            .map(category -> new CategoryDto(
+                category.getId(),
+                category.getName(),
+                category.getDescription(),
+                category.getCreatedAt()))
+            .toList();
+        try {
+            snapshot = new Snapshot(versions.incrementAndGet(), categories, objectMapper.writeValueAsBytes(categories));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize categories", e);
+        }
+    }
+
+    public static final class Snapshot {
+
+        private final long version;
+        private final long lastModified = System.currentTimeMillis();
+        private final List<CategoryDto> categories;
+        private final Map<Long, CategoryDto> byId = new HashMap<>();
+        private final Map<String, CategoryDto> byName = new HashMap<>();
+        private final byte[] json;
+
+        private Snapshot(long version, List<CategoryDto> categories, byte[] json) {
+            this.version = version;
+            this.categories = Collections.unmodifiableList(categories);
+            this.json = json;
+            for (CategoryDto category : categories) {
+                byId.put(category.getId(), category);
+                byName.put(category.getName(), category);
+            }
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public String getEtag() {
+            return "\"categories-" + version + "\"";
+        }
+
+        public List<CategoryDto> getCategories() {
+            return categories;
+        }
+
+        public CategoryDto getById(Long id) {
+            return byId.get(id);
+        }
+
+        public CategoryDto getByName(String name) {
+            return byName.get(name);
+        }
+
+        // Pre-serialized response body of GET /api/categories; callers must not modify it
+        public byte[] getJson() {
+            return json;
+        }
+    }
+}
@@ -2,13 +2,15 @@ package com.bookstore.service;
 
 import com.bookstore.dto.CategoryDto;
 import com.bookstore.entity.Category;
+import com.bookstore.event.CategoryChangedEvent;
 import com.bookstore.repository.CategoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -17,16 +19,25 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
     
+    @Autowired
+    private CategoryCatalog categoryCatalog;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    // Read from the in-memory snapshot, so no transaction or connection is needed
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<CategoryDto> getAllCategories() {
-        return categoryRepository.findAll().stream()
-            .map(this::convertToDto)
-            .collect(Collectors.toList());
+        return categoryCatalog.getSnapshot().getCategories();
     }
     
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public CategoryDto getCategoryById(Long id) {
-        Category category = categoryRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Category not found with id: " + id));
-        return convertToDto(category);
+        CategoryDto category = categoryCatalog.getSnapshot().getById(id);
+        if (category == null) {
+            throw new RuntimeException("Category not found with id: " + id);
+        }
+        return category;
     }
     
     public CategoryDto createCategory(CategoryDto categoryDto) {
@@ -36,7 +47,9 @@ public class CategoryService {
         
         Category category = new Category(categoryDto.getName(), categoryDto.getDescription());
         category = categoryRepository.save(category);
-        return convertToDto(category);
+        CategoryDto created = convertToDto(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(CategoryChangedEvent.Type.CREATED, created));
+        return created;
     }
     
     public CategoryDto updateCategory(Long id, CategoryDto categoryDto) {
@@ -47,14 +60,18 @@ public class CategoryService {
         category.setDescription(categoryDto.getDescription());
         
         category = categoryRepository.save(category);
-        return convertToDto(category);
+        CategoryDto updated = convertToDto(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(CategoryChangedEvent.Type.UPDATED, updated));
+        return updated;
     }
     
     public void deleteCategory(Long id) {
         Category category = categoryRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Category not found with id: " + id));
         
+        CategoryDto deleted = convertToDto(category);
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(CategoryChangedEvent.Type.DELETED, deleted));
     }
     
     private CategoryDto convertToDto(Category category) {
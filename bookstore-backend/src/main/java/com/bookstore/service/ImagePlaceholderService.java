@@ -0,0 +1,292 @@
+package com.bookstore.service;
+
+import com.bookstore.entity.Item;
+import com.bookstore.event.ItemChangedEvent;
+import com.bookstore.event.ItemImageDetailsChangedEvent;
+import com.bookstore.repository.ItemBatchRepository;
+import com.bookstore.repository.ItemRepository;
+import com.bookstore.storage.UploadStorage;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Pixel size and BlurHash placeholder of item images, so listings can reserve the space and show a
+// blurred preview before the image itself arrives. They are computed on a worker thread, once per
+// image URL: after an upload, when an item is saved with an image that has none yet, and on startup
+// for items still without one (such as the sample data, whose images are external URLs). Results are
+// written to every item using the URL and kept in a bounded cache, so an item created right after its
+// image was uploaded gets them in the create response.
+@Service
+public class ImagePlaceholderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImagePlaceholderService.class);
+
+    // The image is decoded at about this width, which is plenty for a placeholder
+    private static final int SAMPLE_SIZE = 64;
+
+    @Autowired
+    private UploadStorage uploadStorage;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemBatchRepository itemBatchRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final ThreadPoolExecutor workers;
+    private final Cache<String, ImageDetails> details;
+    private final HttpClient client;
+    // Lower case; an entry starting with a dot matches every subdomain of it
+    private final List<String> allowedHosts;
+
+    // Images of external URLs on allowedHosts are downloaded; off, only uploads get placeholders
+    @Value("${uploads.placeholders.fetch-remote:false}")
+    private boolean fetchRemote;
+
+    @Value("${uploads.placeholders.fetch-timeout:10s}")
+    private Duration fetchTimeout;
+
+    @Value("${uploads.max-size:10MB}")
+    private DataSize maxSize;
+
+    @Value("${uploads.renditions.max-pixels:40000000}")
+    private long maxPixels;
+
+    public ImagePlaceholderService(@Value("${uploads.placeholders.workers:1}") int workerCount,
+                                   @Value("${uploads.placeholders.queue-capacity:1000}") int queueCapacity,
+                                   @Value("${uploads.placeholders.cache-size:10000}") long cacheSize,
+                                   @Value("${uploads.placeholders.allowed-hosts:}") String allowedHosts) {
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "image-placeholder-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.details = Caffeine.newBuilder().maximumSize(cacheSize).build();
+        // Redirects are not followed, so an external URL cannot lead to an internal address
+        this.client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+        this.allowedHosts = Arrays.stream(allowedHosts.split(","))
+            .map(host -> host.trim().toLowerCase(Locale.ROOT))
+            .filter(host -> !host.isEmpty())
+            .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    // Sets the image size and placeholder of an item whose image URL was just set, when already known
+    public void apply(Item item) {
+        ImageDetails known = details.getIfPresent(item.getImageUrl());
+        item.setImageWidth(known != null ? known.width : null);
+        item.setImageHeight(known != null ? known.height : null);
+        item.setImagePlaceholder(known != null ? known.placeholder : null);
+    }
+
+    // Queues reading the image at url and filling it in on the items using it. An image is read once
+    // while it stays cached, so repeated submits only repeat the update. When the queue is full it is
+    // retried on the next save of an item or on restart.
+    public void submit(String url) {
+        if (url == null) {
+            return;
+        }
+        try {
+            workers.execute(() -> compute(url));
+        } catch (RejectedExecutionException e) {
+            logger.debug("Placeholder queue is full, skipping {}", url);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.getType() != ItemChangedEvent.Type.DELETED && event.getItem().getImagePlaceholder() == null) {
+            submit(event.getItem().getImageUrl());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (fetchRemote && allowedHosts.isEmpty()) {
+            logger.warn("uploads.placeholders.fetch-remote is on but allowed-hosts is empty; no external image is read");
+        }
+        itemRepository.findImageUrlsWithoutPlaceholder().forEach(this::submit);
+    }
+
+    private void compute(String url) {
+        try {
+            // Loaded at most once at a time per URL; nothing is cached when the image cannot be read
+            ImageDetails computed = details.get(url, key -> {
+                try {
+                    return read(key);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (computed == null) {
+                return;
+            }
+            int updated = itemBatchRepository.updateImageDetails(url, computed.width, computed.height, computed.placeholder);
+            if (updated > 0) {
+                eventPublisher.publishEvent(new ItemImageDetailsChangedEvent(url));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not create a placeholder for {}: {}", url, e.toString());
+        }
+    }
+
+    private ImageDetails read(String url) throws IOException {
+        if (url.startsWith(UploadStorageService.URL_PREFIX)) {
+            try (InputStream input = uploadStorage.open(url.substring(UploadStorageService.URL_PREFIX.length()), 0)) {
+                return decode(input, url);
+            }
+        }
+        if (!fetchRemote || !(url.startsWith("https://") || url.startsWith("http://"))) {
+            return null;
+        }
+        // HttpClient resolves the host again, so the address check alone could be bypassed by a host
+        // that changes its DNS answer; only hosts the operator trusts are contacted at all
+        URI uri = URI.create(url);
+        if (!isAllowedHost(uri.getHost())) {
+            logger.debug("Not fetching {}: host is not in allowed-hosts", url);
+            return null;
+        }
+        for (InetAddress address : InetAddress.getAllByName(uri.getHost())) {
+            if (isInternal(address)) {
+                logger.debug("Not fetching {}: internal address", url);
+                return null;
+            }
+        }
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(fetchTimeout).GET().build();
+        try {
+            HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                if (response.statusCode() != 200) {
+                    logger.debug("Not reading {}: status {}", url, response.statusCode());
+                    return null;
+                }
+                byte[] bytes = body.readNBytes((int) Math.min(Integer.MAX_VALUE - 8, maxSize.toBytes() + 1));
+                if (bytes.length > maxSize.toBytes()) {
+                    logger.debug("Not reading {}: larger than {}", url, maxSize);
+                    return null;
+                }
+                return decode(new ByteArrayInputStream(bytes), url);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private boolean isAllowedHost(String host) {
+        if (host == null) {
+            return false;
+        }
+        String name = host.toLowerCase(Locale.ROOT);
+        for (String allowed : allowedHosts) {
+            if (allowed.startsWith(".") ? name.endsWith(allowed) : name.equals(allowed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Loopback, private, link-local, multicast, 0.0.0.0/8, carrier-grade NAT (100.64.0.0/10) and IPv6
+    // unique local (fc00::/7) addresses
+    private static boolean isInternal(InetAddress address) {
+        if (address.isLoopbackAddress() || address.isAnyLocalAddress() || address.isSiteLocalAddress()
+                || address.isLinkLocalAddress() || address.isMulticastAddress()) {
+            return true;
+        }
+        byte[] bytes = address.getAddress();
+        if (bytes.length == 16) {
+            return (bytes[0] & 0xfe) == 0xfc;
+        }
+        return bytes[0] == 0 || ((bytes[0] & 0xff) == 100 && (bytes[1] & 0xc0) == 64);
+    }
+
+    // Only every n-th pixel is decoded, which keeps large images cheap
+    private ImageDetails decode(InputStream stream, String url) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(stream)) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                logger.debug("No placeholder for {}: not a readable image", url);
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    logger.debug("No placeholder for {}: {}x{} pixels", url, width, height);
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / SAMPLE_SIZE);
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage sample = reader.read(0, param);
+                // More components along the longer side
+                String placeholder = width >= height ? BlurHash.encode(sample, 4, 3) : BlurHash.encode(sample, 3, 4);
+                return new ImageDetails(width, height, placeholder);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static final class ImageDetails {
+
+        private final int width;
+        private final int height;
+        private final String placeholder;
+
+        private ImageDetails(int width, int height, String placeholder) {
+            this.width = width;
+            this.height = height;
+            this.placeholder = placeholder;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.bookstore.service;
+
+import com.bookstore.storage.UploadStorage;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Fixed-width renditions of uploaded images, stored next to the original as
+// <name>-<width>.jpg (.png for PNG and GIF originals). They are generated on a bounded worker pool
+// after the upload has returned; until a rendition exists, or when the original is narrower, the
+// original is served for that size.
+@Service
+public class ImageRenditionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageRenditionService.class);
+
+    public enum Rendition {
+        GRID(320), DETAIL(800), ZOOM(1600);
+
+        private final int width;
+
+        Rendition(int width) {
+            this.width = width;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public static Rendition fromName(String name) {
+            for (Rendition rendition : values()) {
+                if (rendition.name().equalsIgnoreCase(name)) {
+                    return rendition;
+                }
+            }
+            throw new RuntimeException("Unsupported size: " + name + ". Supported: grid, detail, zoom");
+        }
+    }
+
+    @Autowired
+    private UploadFileServer uploadFileServer;
+
+    @Autowired
+    private UploadStorage uploadStorage;
+
+    private final ThreadPoolExecutor workers;
+
+    @Value("${uploads.renditions.jpeg-quality:0.85}")
+    private float jpegQuality;
+
+    // Larger images are not decoded, so a small file cannot claim gigabytes of pixels
+    @Value("${uploads.renditions.max-pixels:40000000}")
+    private long maxPixels;
+
+    public ImageRenditionService(@Value("${uploads.renditions.workers:2}") int workerCount,
+                                 @Value("${uploads.renditions.queue-capacity:200}") int queueCapacity) {
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "image-rendition-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        // Decode and encode in memory instead of through ImageIO's temp files
+        ImageIO.setUseCache(false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    // Queues the renditions of a stored file; when the queue is full the original serves every size
+    public void submit(String filename) {
+        try {
+            workers.execute(() -> generate(filename));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Rendition queue is full, serving the original for {}", filename);
+        }
+    }
+
+    // The key to serve for a size: its rendition once written, otherwise the original
+    public String resolve(String filename, Rendition rendition) {
+        if (!uploadFileServer.exists(filename)) {
+            throw new RuntimeException("Image not found: " + filename);
+        }
+        if (rendition != null) {
+            String key = renditionName(filename, rendition);
+            if (uploadFileServer.exists(key)) {
+                return key;
+            }
+        }
+        return filename;
+    }
+
+    public void deleteRenditions(String filename) throws IOException {
+        for (Rendition rendition : Rendition.values()) {
+            String key = renditionName(filename, rendition);
+            uploadStorage.delete(key);
+            uploadFileServer.invalidate(key);
+        }
+    }
+
+    private void generate(String filename) {
+        try {
+            BufferedImage source = read(filename);
+            if (source == null) {
+                logger.debug("No renditions for {}: not a readable image", filename);
+                return;
+            }
+            boolean png = renditionExtension(filename).equals(".png");
+            // Largest first, each scaled down from the previous one
+            BufferedImage current = source;
+            for (int i = Rendition.values().length - 1; i >= 0; i--) {
+                Rendition rendition = Rendition.values()[i];
+                if (current.getWidth() <= rendition.getWidth()) {
+                    continue;
+                }
+                current = scale(current, rendition.getWidth(), png);
+                write(current, renditionName(filename, rendition), png);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not create renditions for {}", filename, e);
+        }
+    }
+
+    private BufferedImage read(String key) throws IOException {
+        try (InputStream stream = uploadStorage.open(key, 0);
+             ImageInputStream input = ImageIO.createImageInputStream(stream)) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    logger.warn("Skipping renditions for {}: {}x{} pixels", key,
+                        reader.getWidth(0), reader.getHeight(0));
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves the size step by step before the final pass, which keeps bilinear scaling sharp
+    private BufferedImage scale(BufferedImage image, int width, boolean alpha) {
+        BufferedImage current = image;
+        do {
+            int stepWidth = Math.max(width, current.getWidth() / 2);
+            int stepHeight = Math.max(1, (int) Math.round((double) current.getHeight() * stepWidth / current.getWidth()));
+            BufferedImage next = new BufferedImage(stepWidth, stepHeight,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                if (!alpha) {
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, 0, stepWidth, stepHeight);
+                }
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, stepWidth, stepHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (current.getWidth() > width);
+        return current;
+    }
+
+    // Written to a temp file and moved into place, so a half-written rendition is never served
+    private void write(BufferedImage image, String key, boolean png) throws IOException {
+        Path temp = uploadStorage.getTempDirectory().resolve("." + key + "." + UUID.randomUUID() + ".tmp");
+        try {
+            if (png) {
+                ImageIO.write(image, "png", temp.toFile());
+            } else {
+                ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+                try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                    writer.setOutput(output);
+                    writer.write(null, new IIOImage(image, null, null), param);
+                } finally {
+                    writer.dispose();
+                }
+            }
+            uploadStorage.store(key, temp);
+            uploadFileServer.invalidate(key);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static String renditionName(String filename, Rendition rendition) {
+        int dot = filename.lastIndexOf('.');
+        String base = dot >= 0 ? filename.substring(0, dot) : filename;
+        return base + "-" + rendition.getWidth() + renditionExtension(filename);
+    }
+
+    private static String renditionExtension(String filename) {
+        String name = filename.toLowerCase(Locale.ROOT);
+        return name.endsWith(".png") || name.endsWith(".gif") ? ".png" : ".jpg";
+    }
+}
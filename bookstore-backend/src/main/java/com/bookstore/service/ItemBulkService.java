@@ -0,0 +1,219 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.BulkItemResultDto;
+import com.bookstore.dto.BulkItemRowDto;
+import com.bookstore.dto.ItemDto;
+import com.bookstore.entity.Category;
+import com.bookstore.entity.Item;
+import com.bookstore.entity.User;
+import com.bookstore.event.ItemChangedEvent;
+import com.bookstore.repository.CategoryRepository;
+import com.bookstore.repository.ItemBatchRepository;
+import com.bookstore.repository.ItemRepository;
+import com.bookstore.repository.UserRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Creates and updates many items per request. Seller and categories are looked up once, rows are
+// written in chunks that each commit on their own, and every row gets its own result.
+@Service
+public class ItemBulkService {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemBatchRepository itemBatchRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ImagePlaceholderService imagePlaceholderService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${items.bulk.chunk-size:100}")
+    private int chunkSize;
+
+    @Value("${items.bulk.max-items:1000}")
+    private int maxItems;
+
+    public ItemBulkService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Rows without an id are created, rows with an id update an item of the seller
+    public BulkItemResultDto saveItems(List<ItemDto> itemDtos, Long userId) {
+        if (itemDtos.size() > maxItems) {
+            throw new RuntimeException("At most " + maxItems + " items can be saved per request");
+        }
+        User seller = userRepository.findById(userId)
+            .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+        Map<Long, Category> categories = categoryRepository.findAllById(itemDtos.stream()
+                .map(ItemDto::getCategoryId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList()).stream()
+            .collect(Collectors.toMap(Category::getId, Function.identity()));
+
+        List<BulkItemRowDto> results = new ArrayList<>();
+        for (int start = 0; start < itemDtos.size(); start += chunkSize) {
+            List<ItemDto> chunk = itemDtos.subList(start, Math.min(start + chunkSize, itemDtos.size()));
+            results.addAll(saveChunk(chunk, start, seller, categories));
+        }
+        results.sort(Comparator.comparingInt(BulkItemRowDto::getIndex));
+        return new BulkItemResultDto(results);
+    }
+
+    private List<BulkItemRowDto> saveChunk(List<ItemDto> chunk, int offset, User seller, Map<Long, Category> categories) {
+        List<BulkItemRowDto> results = new ArrayList<>();
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            String error = validate(chunk.get(i), categories);
+            if (error != null) {
+                results.add(new BulkItemRowDto(offset + i, chunk.get(i).getId(), BulkItemRowDto.Status.FAILED, error));
+            } else {
+                valid.add(i);
+            }
+        }
+        if (valid.isEmpty()) {
+            return results;
+        }
+
+        try {
+            results.addAll(transactionTemplate.execute(status -> {
+                List<BulkItemRowDto> written = new ArrayList<>();
+                Map<Long, Item> existing = itemRepository.findAllById(valid.stream()
+                        .map(i -> chunk.get(i).getId())
+                        .filter(Objects::nonNull)
+                        .toList()).stream()
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+                List<Item> updated = new ArrayList<>();
+                List<ItemDto> previous = new ArrayList<>();
+                List<Item> created = new ArrayList<>();
+                List<Integer> createdRows = new ArrayList<>();
+                for (int i : valid) {
+                    ItemDto itemDto = chunk.get(i);
+                    Category category = categories.get(itemDto.getCategoryId());
+                    if (itemDto.getId() == null) {
+                        Item item = new Item(itemDto.getName(), itemDto.getPrice(), itemDto.getImageUrl(),
+                            itemDto.getCondition(), itemDto.getDescription(), category, seller);
+                        if (itemDto.getIsAvailable() != null) {
+                            item.setIsAvailable(itemDto.getIsAvailable());
+                        }
+                        imagePlaceholderService.apply(item);
+                        created.add(item);
+                        createdRows.add(i);
+                        continue;
+                    }
+                    Item item = existing.get(itemDto.getId());
+                    String error = item == null ? "Item not found with id: " + itemDto.getId()
+                        : !item.getSeller().getId().equals(seller.getId()) ? "You are not authorized to update this item"
+                        : null;
+                    if (error != null) {
+                        written.add(new BulkItemRowDto(offset + i, itemDto.getId(), BulkItemRowDto.Status.FAILED, error));
+                        continue;
+                    }
+                    previous.add(convertToDto(item));
+                    item.setName(itemDto.getName());
+                    item.setPrice(itemDto.getPrice());
+                    if (!itemDto.getImageUrl().equals(item.getImageUrl())) {
+                        item.setImageUrl(itemDto.getImageUrl());
+                        imagePlaceholderService.apply(item);
+                    }
+                    item.setCondition(itemDto.getCondition());
+                    item.setDescription(itemDto.getDescription());
+                    item.setCategory(category);
+                    if (itemDto.getIsAvailable() != null) {
+                        item.setIsAvailable(itemDto.getIsAvailable());
+                    }
+                    updated.add(item);
+                    written.add(new BulkItemRowDto(offset + i, item.getId(), BulkItemRowDto.Status.UPDATED, null));
+                }
+                // Dirty updates are flushed as JDBC batches (hibernate.jdbc.batch_size) before the inserts
+                itemRepository.flush();
+                for (int j = 0; j < updated.size(); j++) {
+                    eventPublisher.publishEvent(new ItemChangedEvent(ItemChangedEvent.Type.UPDATED,
+                        convertToDto(updated.get(j)), previous.get(j)));
+                }
+                itemBatchRepository.insertAll(created);
+                for (int j = 0; j < created.size(); j++) {
+                    Item item = created.get(j);
+                    written.add(new BulkItemRowDto(offset + createdRows.get(j), item.getId(),
+                        BulkItemRowDto.Status.CREATED, null));
+                    eventPublisher.publishEvent(new ItemChangedEvent(ItemChangedEvent.Type.CREATED, convertToDto(item)));
+                }
+                return written;
+            }));
+        } catch (RuntimeException e) {
+            // The chunk was rolled back as a whole, so none of its rows were saved
+            for (int i : valid) {
+                results.add(new BulkItemRowDto(offset + i, chunk.get(i).getId(), BulkItemRowDto.Status.FAILED,
+                    "Chunk rolled back: " + e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    private String validate(ItemDto itemDto, Map<Long, Category> categories) {
+        Set<ConstraintViolation<ItemDto>> violations = validator.validate(itemDto);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+        }
+        if (!categories.containsKey(itemDto.getCategoryId())) {
+            return "Category not found with id: " + itemDto.getCategoryId();
+        }
+        return null;
+    }
+
+    private ItemDto convertToDto(Item item) {
+        return new ItemDto(
+            item.getId(),
+            item.getName(),
+            item.getPrice(),
+            item.getImageUrl(),
+            item.getImageWidth(),
+            item.getImageHeight(),
+            item.getImagePlaceholder(),
+            item.getCondition(),
+            item.getDescription(),
+            item.getIsAvailable(),
+            item.getCreatedAt(),
+            item.getUpdatedAt(),
+            item.getCategory().getName(),
+            item.getCategory().getId(),
+            item.getSeller().getFullName(),
+            item.getSeller().getEmail(),
+            item.getSeller().getId()
+        );
+    }
+}
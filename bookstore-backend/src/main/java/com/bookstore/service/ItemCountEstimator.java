@@ -0,0 +1,55 @@
+package com.bookstore.service;
+
+import com.bookstore.entity.Item;
+import com.bookstore.repository.ItemRepository;
+import com.bookstore.search.ItemFacetIndex;
+import com.bookstore.search.ItemTextIndex;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+// Total of matching items for slice responses: counted on the in-memory bitmaps when they can
+// answer, otherwise a count query whose result is reused until it expires
+@Component
+public class ItemCountEstimator {
+    
+    @Autowired
+    private ItemRepository itemRepository;
+    
+    @Autowired
+    private ItemFacetIndex itemFacetIndex;
+    
+    @Autowired
+    private ItemTextIndex itemTextIndex;
+    
+    private final Cache<List<Object>, Long> counts;
+    
+    public ItemCountEstimator(@Value("${cache.item-counts.maximum-size:1000}") long maximumSize,
+                              @Value("${cache.item-counts.ttl:1m}") Duration ttl) {
+        this.counts = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .build();
+    }
+    
+    public long estimate(String category, Item.Condition condition, BigDecimal minPrice,
+                         BigDecimal maxPrice, String searchTerm) {
+        if (itemFacetIndex.isReady()) {
+            Optional<int[]> textMatches = searchTerm == null ? Optional.empty() : itemTextIndex.matchIds(searchTerm);
+            if (searchTerm == null || textMatches.isPresent()) {
+                return itemFacetIndex.count(textMatches.orElse(null), category, condition, minPrice, maxPrice);
+            }
+        }
+        List<Object> key = Arrays.asList(category, condition, minPrice, maxPrice, searchTerm);
+        return counts.get(key, k -> itemRepository.countItemsWithFilters(
+            category, condition, minPrice, maxPrice, searchTerm));
+    }
+}
@@ -0,0 +1,77 @@
+package com.bookstore.service;
+
+import com.bookstore.entity.Item;
+import com.bookstore.repository.ItemSort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Opaque keyset position: sort key of the last row returned plus its id as tie-breaker. Any ItemSort
+// can be used; a condition is kept by name, the value its stored column sorts by.
+public class ItemCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final ItemSort sort;
+    private final boolean descending;
+    private final String value;
+    private final Long id;
+
+    private ItemCursor(ItemSort sort, boolean descending, String value, Long id) {
+        this.sort = sort;
+        this.descending = descending;
+        this.value = value;
+        this.id = id;
+    }
+
+    public static ItemCursor of(Item item, ItemSort sort, boolean descending) {
+        String value = switch (sort) {
+            case CREATED_AT -> item.getCreatedAt().toString();
+            case PRICE -> item.getPrice().toPlainString();
+            case NAME -> item.getName();
+            case CONDITION -> item.getCondition().name();
+        };
+        return new ItemCursor(sort, descending, value, item.getId());
+    }
+
+    public static ItemCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // sortBy|dir|id|value - value goes last since names may contain the separator
+            String[] parts = raw.split("\\" + SEPARATOR, 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            ItemCursor cursor = new ItemCursor(ItemSort.fromProperty(parts[0]), "desc".equals(parts[1]), parts[3],
+                Long.valueOf(parts[2]));
+            cursor.getValue();
+            return cursor;
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor: " + token);
+        }
+    }
+
+    public String encode() {
+        String raw = sort.getProperty() + SEPARATOR + (descending ? "desc" : "asc") + SEPARATOR + id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean matches(ItemSort sort, boolean descending) {
+        return this.sort == sort && this.descending == descending;
+    }
+
+    public Comparable<?> getValue() {
+        return switch (sort) {
+            case CREATED_AT -> LocalDateTime.parse(value);
+            case PRICE -> new BigDecimal(value);
+            case NAME -> value;
+            case CONDITION -> Item.Condition.valueOf(value);
+        };
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
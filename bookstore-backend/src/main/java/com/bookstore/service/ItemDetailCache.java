@@ -0,0 +1,112 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.CacheStatsDto;
+import com.bookstore.dto.ItemDto;
+import com.bookstore.event.CategoryChangedEvent;
+import com.bookstore.event.ItemChangedEvent;
+import com.bookstore.event.ItemImageDetailsChangedEvent;
+import com.bookstore.event.ItemImagesMovedEvent;
+import com.bookstore.event.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+// Bounded cache of item detail DTOs, evicted after commit of any write that changes their content
+@Component
+public class ItemDetailCache {
+    
+    private final Cache<Long, ItemDto> cache;
+    
+    @Autowired
+    private RecentWriteTracker recentWriteTracker;
+    
+    public ItemDetailCache(@Value("${cache.items.maximum-size:10000}") long maximumSize,
+                           @Value("${cache.items.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+    }
+    
+    // Items changed within the replica lag window are loaded on every call instead of cached, so a
+    // stale replica read cannot stay in the cache for the whole ttl
+    public ItemDto get(Long id, Function<Long, ItemDto> loader) {
+        if (recentWriteTracker.isRecentlyChanged(id)) {
+            return loader.apply(id);
+        }
+        return cache.get(id, loader);
+    }
+    
+    // Loads all missing ids with one call; ids the loader does not return are left out of the result
+    public Map<Long, ItemDto> getAll(Iterable<Long> ids, Function<Set<? extends Long>, Map<Long, ItemDto>> loader) {
+        List<Long> cacheable = new ArrayList<>();
+        Set<Long> recent = new HashSet<>();
+        for (Long id : ids) {
+            (recentWriteTracker.isRecentlyChanged(id) ? recent : cacheable).add(id);
+        }
+        if (recent.isEmpty()) {
+            return cache.getAll(cacheable, loader);
+        }
+        Map<Long, ItemDto> items = new HashMap<>(cache.getAll(cacheable, loader));
+        items.putAll(loader.apply(recent));
+        return items;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        cache.invalidate(event.getItemId());
+    }
+    
+    // Cached DTOs carry the category name
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        Long categoryId = event.getCategory().getId();
+        cache.asMap().values().removeIf(item -> categoryId.equals(item.getCategoryId()));
+    }
+    
+    // Cached DTOs carry the image URL
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemImagesMoved(ItemImagesMovedEvent event) {
+        Map<String, String> urls = event.getUrls();
+        cache.asMap().values().removeIf(item -> urls.containsKey(item.getImageUrl()));
+    }
+    
+    // Cached DTOs carry the image size and placeholder
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemImageDetailsChanged(ItemImageDetailsChangedEvent event) {
+        String imageUrl = event.getImageUrl();
+        cache.asMap().values().removeIf(item -> imageUrl.equals(item.getImageUrl()));
+    }
+    
+    // Cached DTOs carry the seller name and email
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        Long sellerId = event.getUserId();
+        cache.asMap().values().removeIf(item -> sellerId.equals(item.getSellerId()));
+    }
+    
+    public CacheStatsDto getStats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDto(
+            cache.estimatedSize(),
+            stats.hitCount(),
+            stats.missCount(),
+            stats.evictionCount(),
+            stats.hitRate()
+        );
+    }
+}
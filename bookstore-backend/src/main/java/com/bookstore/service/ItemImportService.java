@@ -0,0 +1,425 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.BulkItemResultDto;
+import com.bookstore.dto.BulkItemRowDto;
+import com.bookstore.dto.CategoryDto;
+import com.bookstore.dto.ImportJobDto;
+import com.bookstore.dto.ItemDto;
+import com.bookstore.entity.Item;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Imports CSV or NDJSON catalogs in the background. The upload is spooled to a temp file, read back
+// one record at a time and written through ItemBulkService in batches, so memory use depends on the
+// batch size rather than the file size.
+@Service
+public class ItemImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemImportService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Longer than any valid row (name, image URL and description are capped well below this)
+    private static final int MAX_RECORD_CHARS = 16 * 1024;
+
+    @Autowired
+    private ItemBulkService itemBulkService;
+
+    @Autowired
+    private CategoryCatalog categoryCatalog;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${items.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${items.import.max-size:256MB}")
+    private DataSize maxSize;
+
+    @Value("${items.import.max-errors:100}")
+    private int maxErrors;
+
+    @Value("${items.import.retention:1h}")
+    private Duration retention;
+
+    private final ExecutorService workers;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ItemImportService(@Value("${items.import.workers:1}") int workerCount) {
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "item-import-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    // Copies the body to disk and queues the import; contentLength is -1 when unknown
+    public ImportJobDto submit(InputStream body, long contentLength, String format, Long sellerId) throws IOException {
+        DataFormat parsed = DataFormat.fromName(format);
+        if (contentLength > maxSize.toBytes()) {
+            throw new RuntimeException("Import exceeds the maximum size of " + maxSize);
+        }
+        LocalDateTime expired = LocalDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(expired));
+
+        Path file = Files.createTempFile("item-import-", "." + parsed.getExtension());
+        try {
+            spool(body, file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), parsed, sellerId);
+        jobs.put(job.id, job);
+        workers.execute(() -> run(job, file));
+        return job.toDto();
+    }
+
+    public ImportJobDto getJob(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("Import job not found with id: " + jobId);
+        }
+        return job.toDto();
+    }
+
+    private void spool(InputStream body, Path file) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long total = 0;
+        try (OutputStream out = Files.newOutputStream(file)) {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                total += read;
+                if (total > maxSize.toBytes()) {
+                    throw new RuntimeException("Import exceeds the maximum size of " + maxSize);
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    private void run(ImportJob job, Path file) {
+        job.status = ImportJobDto.Status.RUNNING;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            RecordReader records = new RecordReader(reader, job.format == DataFormat.CSV);
+            List<String> columns = null;
+            if (job.format == DataFormat.CSV) {
+                columns = readHeader(records);
+            }
+            List<ItemDto> batch = new ArrayList<>(batchSize);
+            List<Long> lines = new ArrayList<>(batchSize);
+            while (records.next()) {
+                job.processed.incrementAndGet();
+                try {
+                    ItemDto itemDto = columns != null ? fromCsv(columns, records.fields()) : fromJson(records.text());
+                    resolveCategory(itemDto);
+                    batch.add(itemDto);
+                    lines.add(records.line);
+                } catch (RuntimeException e) {
+                    recordFailure(job, records.line, e.getMessage());
+                }
+                if (batch.size() == batchSize) {
+                    write(job, batch, lines);
+                }
+            }
+            write(job, batch, lines);
+            job.status = ImportJobDto.Status.COMPLETED;
+        } catch (Exception e) {
+            logger.warn("Import {} failed", job.id, e);
+            job.message = e.getMessage();
+            job.status = ImportJobDto.Status.FAILED;
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Could not delete import file {}", file, e);
+            }
+        }
+        logger.info("Import {} {}: {} rows read, {} created, {} failed", job.id, job.status,
+            job.processed.get(), job.created.get(), job.failed.get());
+    }
+
+    private List<String> readHeader(RecordReader records) throws IOException {
+        if (!records.next()) {
+            throw new RuntimeException("CSV header is missing");
+        }
+        List<String> columns = records.fields().stream()
+            .map(column -> column.trim().toLowerCase(Locale.ROOT))
+            .toList();
+        if (!columns.contains("name")) {
+            throw new RuntimeException("CSV header must contain a name column");
+        }
+        return columns;
+    }
+
+    // Rows go through the same validation and chunked commits as POST /api/items/bulk
+    private void write(ImportJob job, List<ItemDto> batch, List<Long> lines) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        BulkItemResultDto result = itemBulkService.saveItems(batch, job.sellerId);
+        for (BulkItemRowDto row : result.getRows()) {
+            if (row.getStatus() == BulkItemRowDto.Status.FAILED) {
+                recordFailure(job, lines.get(row.getIndex()), row.getError());
+            } else {
+                job.created.incrementAndGet();
+            }
+        }
+        batch.clear();
+        lines.clear();
+    }
+
+    private void recordFailure(ImportJob job, long line, String error) {
+        job.failed.incrementAndGet();
+        if (job.errors.size() < maxErrors) {
+            job.errors.add("Line " + line + ": " + error);
+        }
+    }
+
+    private ItemDto fromCsv(List<String> columns, List<String> fields) {
+        if (fields.size() != columns.size()) {
+            throw new RuntimeException("Expected " + columns.size() + " fields but found " + fields.size());
+        }
+        ItemDto itemDto = new ItemDto();
+        for (int i = 0; i < columns.size(); i++) {
+            String value = fields.get(i).trim();
+            if (value.isEmpty()) {
+                continue;
+            }
+            switch (columns.get(i)) {
+                case "name" -> itemDto.setName(value);
+                case "price" -> itemDto.setPrice(parsePrice(value));
+                case "imageurl" -> itemDto.setImageUrl(value);
+                case "condition" -> itemDto.setCondition(parseCondition(value));
+                case "description" -> itemDto.setDescription(value);
+                case "category", "categoryname" -> itemDto.setCategoryName(value);
+                case "categoryid" -> itemDto.setCategoryId(parseCategoryId(value));
+                case "isavailable" -> itemDto.setIsAvailable(Boolean.parseBoolean(value));
+                default -> {
+                    // Extra columns of partner exports are ignored
+                }
+            }
+        }
+        return itemDto;
+    }
+
+    private ItemDto fromJson(String line) {
+        try {
+            ItemDto itemDto = objectMapper.readValue(line, ItemDto.class);
+            // Imports only create items
+            itemDto.setId(null);
+            return itemDto;
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    // Names are looked up in the category snapshot, so rows never query categories one by one
+    private void resolveCategory(ItemDto itemDto) {
+        if (itemDto.getCategoryId() != null || itemDto.getCategoryName() == null) {
+            return;
+        }
+        CategoryDto category = categoryCatalog.getSnapshot().getByName(itemDto.getCategoryName().trim());
+        if (category == null) {
+            throw new RuntimeException("Category not found with name: " + itemDto.getCategoryName());
+        }
+        itemDto.setCategoryId(category.getId());
+    }
+
+    private static BigDecimal parsePrice(String value) {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid price: " + value);
+        }
+    }
+
+    private static Long parseCategoryId(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid category id: " + value);
+        }
+    }
+
+    private static Item.Condition parseCondition(String value) {
+        try {
+            return Item.Condition.valueOf(value.toUpperCase(Locale.ROOT).replace(' ', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid condition: " + value);
+        }
+    }
+
+    private static final class ImportJob {
+
+        private final String id;
+        private final DataFormat format;
+        private final Long sellerId;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong created = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final List<String> errors = new CopyOnWriteArrayList<>();
+        private volatile ImportJobDto.Status status = ImportJobDto.Status.QUEUED;
+        private volatile String message;
+        private volatile LocalDateTime finishedAt;
+
+        private ImportJob(String id, DataFormat format, Long sellerId) {
+            this.id = id;
+            this.format = format;
+            this.sellerId = sellerId;
+        }
+
+        private ImportJobDto toDto() {
+            return new ImportJobDto(id, format.getExtension(), status, sellerId, processed.get(),
+                created.get(), failed.get(), List.copyOf(errors), message, submittedAt, finishedAt);
+        }
+    }
+
+    // Reads one record at a time without loading the file. Blank lines are skipped, a CSV record
+    // continues over line breaks inside quotes, and overlong records are cut and reported as errors.
+    private static final class RecordReader {
+
+        private final BufferedReader reader;
+        private final boolean csv;
+        private final StringBuilder record = new StringBuilder();
+        private List<String> fields;
+        private String error;
+        private long lines;
+        // Line number the current record starts on
+        private long line;
+
+        private RecordReader(BufferedReader reader, boolean csv) {
+            this.reader = reader;
+            this.csv = csv;
+        }
+
+        private boolean next() throws IOException {
+            do {
+                record.setLength(0);
+                if (!readLine()) {
+                    return false;
+                }
+                line = lines;
+                if (line == 1 && record.length() > 0 && record.charAt(0) == '\uFEFF') {
+                    record.deleteCharAt(0);
+                }
+            } while (record.toString().isBlank());
+
+            fields = null;
+            error = null;
+            if (csv) {
+                while ((fields = splitCsv(record)) == null && record.length() <= MAX_RECORD_CHARS) {
+                    record.append('\n');
+                    if (!readLine()) {
+                        error = "Unterminated quoted field";
+                        return true;
+                    }
+                }
+            }
+            if (record.length() > MAX_RECORD_CHARS) {
+                error = "Record exceeds " + MAX_RECORD_CHARS + " characters";
+            }
+            return true;
+        }
+
+        private List<String> fields() {
+            if (error != null) {
+                throw new RuntimeException(error);
+            }
+            return fields;
+        }
+
+        private String text() {
+            if (error != null) {
+                throw new RuntimeException(error);
+            }
+            return record.toString();
+        }
+
+        // Appends the next line to the record, keeping at most one character over the limit
+        private boolean readLine() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return false;
+            }
+            lines++;
+            while (c != -1 && c != '\n') {
+                if (c != '\r' && record.length() <= MAX_RECORD_CHARS) {
+                    record.append((char) c);
+                }
+                c = reader.read();
+            }
+            return true;
+        }
+
+        // RFC 4180 fields; null while a quoted field is still open
+        private static List<String> splitCsv(CharSequence text) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -1,22 +1,46 @@
 package com.bookstore.service;
 
+import com.bookstore.dto.CategoryDto;
+import com.bookstore.dto.CursorPageDto;
+import com.bookstore.dto.FacetedPageDto;
 import com.bookstore.dto.ItemDto;
+import com.bookstore.dto.SearchFacetsDto;
+import com.bookstore.dto.SliceDto;
 import com.bookstore.entity.Category;
 import com.bookstore.entity.Item;
 import com.bookstore.entity.User;
+import com.bookstore.event.ItemChangedEvent;
 import com.bookstore.repository.CategoryRepository;
 import com.bookstore.repository.ItemRepository;
+import com.bookstore.repository.ItemSort;
+import com.bookstore.repository.ItemSpecifications;
 import com.bookstore.repository.UserRepository;
+import com.bookstore.search.AvailableItemColumns;
+import com.bookstore.search.ItemFacetIndex;
+import com.bookstore.search.ItemTextIndex;
+import com.bookstore.search.LuceneItemSearchEngine;
+import com.bookstore.search.TrigramIndex;
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -31,47 +55,183 @@ public class ItemService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private ItemTextIndex itemTextIndex;
+    
+    @Autowired
+    private ItemFacetIndex itemFacetIndex;
+    
+    @Autowired
+    private TrigramIndex trigramIndex;
+    
+    @Autowired
+    private AvailableItemColumns availableItemColumns;
+    
+    @Autowired
+    private CategoryCatalog categoryCatalog;
+    
+    // Only present with search.engine=lucene
+    @Autowired(required = false)
+    private LuceneItemSearchEngine luceneSearchEngine;
+    
+    @Autowired
+    private ItemDetailCache itemDetailCache;
+    
+    @Autowired
+    private ItemCountEstimator itemCountEstimator;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private ImagePlaceholderService imagePlaceholderService;
+    
+    @Transactional(readOnly = true)
     public Page<ItemDto> getAllItems(int page, int size, String sortBy, String sortDir) {
-        Sort sort = sortDir.equalsIgnoreCase("desc") ? 
-            Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+        Sort sort = toSort(sortBy, sortDir);
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        Page<Item> items = itemRepository.findByIsAvailableTrue(pageable);
-        return items.map(this::convertToDto);
+        Optional<Page<ItemDto>> browsed = browseColumns(null, null, null, null, null, pageable);
+        if (browsed.isPresent()) {
+            return browsed.get();
+        }
+        return itemRepository.findAvailableItemDtos(pageable);
     }
     
+    @Transactional(readOnly = true)
     public Page<ItemDto> searchItems(String category, String condition, BigDecimal minPrice, 
-                                   BigDecimal maxPrice, String searchTerm, int page, int size, 
+                                   BigDecimal maxPrice, String searchTerm, boolean fuzzy, int page, int size, 
                                    String sortBy, String sortDir) {
-        Sort sort = sortDir.equalsIgnoreCase("desc") ? 
-            Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+        String categoryFilter = blankToNull(category);
+        Item.Condition conditionEnum = parseCondition(condition);
+        String searchFilter = blankToNull(searchTerm);
+        
+        // Relevance ranking needs a ready Lucene engine and a text term; fuzzy matches rank by similarity
+        boolean byRelevance = "relevance".equals(sortBy) && luceneSearchEngine != null && luceneSearchEngine.isReady()
+            && searchFilter != null && !fuzzy;
+        Sort sort = byRelevance ? Sort.by("relevance") : toSearchSort(sortBy, sortDir);
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        // Handle empty strings by converting them to null
-        String categoryFilter = (category == null || category.trim().isEmpty()) ? null : category;
-        String conditionFilter = (condition == null || condition.trim().isEmpty()) ? null : condition;
-        String searchFilter = (searchTerm == null || searchTerm.trim().isEmpty()) ? null : searchTerm;
-
-        // Convert condition string to Item.Condition enum if provided
-        Item.Condition conditionEnum = null;
-        if (conditionFilter != null) {
-            try {
-                conditionEnum = Item.Condition.valueOf(conditionFilter.toUpperCase());
-            } catch (IllegalArgumentException e) {
-                // If the provided condition doesn't match enum values, ignore the filter
-                conditionEnum = null;
+        if (fuzzy && searchFilter != null) {
+            Optional<Page<ItemDto>> similar = trigramIndex.search(searchFilter).flatMap(similarity ->
+                searchSimilar(categoryFilter, conditionEnum, minPrice, maxPrice, similarity, pageable));
+            if (similar.isPresent()) {
+                return similar.get();
             }
         }
-
-        Page<Item> items = itemRepository.findItemsWithFilters(
+        
+        if (searchFilter == null) {
+            Optional<Page<ItemDto>> browsed = browseColumns(
+                categoryFilter, conditionEnum, minPrice, maxPrice, null, pageable);
+            if (browsed.isPresent()) {
+                return browsed.get();
+            }
+        }
+        
+        if (luceneSearchEngine != null && luceneSearchEngine.isReady()) {
+            Page<Long> ids = luceneSearchEngine.search(
+                categoryFilter, conditionEnum, minPrice, maxPrice, searchFilter, pageable);
+            return new PageImpl<>(loadInOrder(ids.getContent()), pageable, ids.getTotalElements());
+        }
+        
+        if (searchFilter != null) {
+            Optional<Page<ItemDto>> indexed = searchIndexed(
+                categoryFilter, conditionEnum, minPrice, maxPrice, searchFilter, pageable);
+            if (indexed.isPresent()) {
+                return indexed.get();
+            }
+        }
+        
+        // Only until the in-memory index and columns are loaded; LIKE matches the term as a substring
+        return itemRepository.findItemDtosWithFilters(
             categoryFilter, conditionEnum, minPrice, maxPrice, searchFilter, pageable);
-        return items.map(this::convertToDto);
     }
     
+    @Transactional(readOnly = true)
+    public FacetedPageDto<ItemDto> searchItemsWithFacets(String category, String condition, BigDecimal minPrice,
+                                                         BigDecimal maxPrice, String searchTerm, boolean fuzzy,
+                                                         int page, int size, String sortBy, String sortDir) {
+        Page<ItemDto> items = searchItems(
+            category, condition, minPrice, maxPrice, searchTerm, fuzzy, page, size, sortBy, sortDir);
+        return new FacetedPageDto<>(items, computeFacets(
+            blankToNull(category), parseCondition(condition), minPrice, maxPrice, blankToNull(searchTerm), fuzzy));
+    }
+    
+    // Infinite scroll: one query per page that fetches size + 1 rows; the total is only estimated on request
+    @Transactional(readOnly = true)
+    public SliceDto<ItemDto> getAllItemsSlice(int page, int size, String sortBy, String sortDir, boolean withTotal) {
+        Sort sort = toSort(sortBy, sortDir);
+        Slice<ItemDto> items = itemRepository.findAvailableItemDtoSlice(PageRequest.of(page, size, sort));
+        Long total = withTotal ? itemCountEstimator.estimate(null, null, null, null, null) : null;
+        return new SliceDto<>(items.getContent(), page, size, items.hasNext(), total);
+    }
+    
+    @Transactional(readOnly = true)
+    public SliceDto<ItemDto> searchItemsSlice(String category, String condition, BigDecimal minPrice,
+                                              BigDecimal maxPrice, String searchTerm, boolean fuzzy, int page,
+                                              int size, String sortBy, String sortDir, boolean withTotal) {
+        String categoryFilter = blankToNull(category);
+        Item.Condition conditionEnum = parseCondition(condition);
+        String searchFilter = blankToNull(searchTerm);
+        
+        // Fuzzy and Lucene results are counted in memory anyway, so their pages are reused as is
+        if ((fuzzy && searchFilter != null) || (luceneSearchEngine != null && luceneSearchEngine.isReady())) {
+            Page<ItemDto> items = searchItems(
+                category, condition, minPrice, maxPrice, searchTerm, fuzzy, page, size, sortBy, sortDir);
+            return new SliceDto<>(items.getContent(), page, size, items.hasNext(),
+                withTotal ? items.getTotalElements() : null);
+        }
+        
+        Sort sort = toSearchSort(sortBy, sortDir);
+        Pageable pageable = PageRequest.of(page, size, sort);
+        if (searchFilter != null) {
+            Optional<Page<ItemDto>> indexed = searchIndexed(
+                categoryFilter, conditionEnum, minPrice, maxPrice, searchFilter, pageable);
+            if (indexed.isPresent()) {
+                return new SliceDto<>(indexed.get().getContent(), page, size, indexed.get().hasNext(),
+                    withTotal ? indexed.get().getTotalElements() : null);
+            }
+        }
+        Slice<ItemDto> items = itemRepository.findItemDtoSliceWithFilters(
+            categoryFilter, conditionEnum, minPrice, maxPrice, searchFilter, pageable);
+        Long total = withTotal
+            ? itemCountEstimator.estimate(categoryFilter, conditionEnum, minPrice, maxPrice, searchFilter) : null;
+        return new SliceDto<>(items.getContent(), page, size, items.hasNext(), total);
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPageDto<ItemDto> getAllItemsAfter(String after, int size, String sortBy, String sortDir) {
+        return scrollItems(ItemSpecifications.isAvailable(), after, size, sortBy, sortDir);
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPageDto<ItemDto> searchItemsAfter(String category, String condition, BigDecimal minPrice,
+                                                   BigDecimal maxPrice, String searchTerm, boolean fuzzy,
+                                                   String after, int size, String sortBy, String sortDir) {
+        if (fuzzy) {
+            throw new RuntimeException("Fuzzy search does not support cursor pagination");
+        }
+        String searchFilter = blankToNull(searchTerm);
+        Optional<List<Long>> matches = matchSearchTerm(searchFilter);
+        if (matches.isPresent()) {
+            if (matches.get().isEmpty()) {
+                return new CursorPageDto<>(List.of(), null, size, false);
+            }
+            Specification<Item> filters = ItemSpecifications.withFilters(
+                blankToNull(category), parseCondition(condition), minPrice, maxPrice, null)
+                .and(ItemSpecifications.idIn(matches.get()));
+            return scrollItems(filters, after, size, sortBy, sortDir);
+        }
+        
+        Specification<Item> filters = ItemSpecifications.withFilters(
+            blankToNull(category), parseCondition(condition), minPrice, maxPrice, searchFilter);
+        return scrollItems(filters, after, size, sortBy, sortDir);
+    }
+    
+    @Transactional(readOnly = true)
     public ItemDto getItemById(Long id) {
-        Item item = itemRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Item not found with id: " + id));
-        return convertToDto(item);
+        return itemDetailCache.get(id, key -> itemRepository.findItemDtoById(key)
+            .orElseThrow(() -> new RuntimeException("Item not found with id: " + key)));
     }
     
     public ItemDto createItem(ItemDto itemDto, Long userId) {
@@ -90,9 +250,12 @@ public class ItemService {
             category,
             seller
         );
+        imagePlaceholderService.apply(item);
         
         item = itemRepository.save(item);
-        return convertToDto(item);
+        ItemDto created = convertToDto(item);
+        eventPublisher.publishEvent(new ItemChangedEvent(ItemChangedEvent.Type.CREATED, created));
+        return created;
     }
     
     public ItemDto updateItem(Long id, ItemDto itemDto, Long userId) {
@@ -107,16 +270,22 @@ public class ItemService {
         Category category = categoryRepository.findById(itemDto.getCategoryId())
             .orElseThrow(() -> new RuntimeException("Category not found with id: " + itemDto.getCategoryId()));
         
+        ItemDto previous = convertToDto(item);
         item.setName(itemDto.getName());
         item.setPrice(itemDto.getPrice());
-        item.setImageUrl(itemDto.getImageUrl());
+        if (!itemDto.getImageUrl().equals(item.getImageUrl())) {
+            item.setImageUrl(itemDto.getImageUrl());
+            imagePlaceholderService.apply(item);
+        }
         item.setCondition(itemDto.getCondition());
         item.setDescription(itemDto.getDescription());
         item.setCategory(category);
         item.setIsAvailable(itemDto.getIsAvailable());
         
         item = itemRepository.save(item);
-        return convertToDto(item);
+        ItemDto updated = convertToDto(item);
+        eventPublisher.publishEvent(new ItemChangedEvent(ItemChangedEvent.Type.UPDATED, updated, previous));
+        return updated;
     }
     
     public void deleteItem(Long id, Long userId) {
@@ -128,35 +297,202 @@ public class ItemService {
             throw new RuntimeException("You are not authorized to delete this item");
         }
         
+        ItemDto deleted = convertToDto(item);
         itemRepository.delete(item);
+        eventPublisher.publishEvent(new ItemChangedEvent(ItemChangedEvent.Type.DELETED, deleted));
     }
     
     public void deleteItemByAdmin(Long id) {
         Item item = itemRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Item not found with id: " + id));
         
+        ItemDto deleted = convertToDto(item);
         itemRepository.delete(item);
+        eventPublisher.publishEvent(new ItemChangedEvent(ItemChangedEvent.Type.DELETED, deleted));
     }
     
+    @Transactional(readOnly = true)
     public Page<ItemDto> getUserItems(Long userId, int page, int size) {
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found with id: " + userId);
+        }
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<Item> items = itemRepository.findBySellerAndIsAvailableTrue(user, pageable);
-        return items.map(this::convertToDto);
+        return itemRepository.findItemDtosBySellerId(userId, pageable);
     }
     
     public List<Item.Condition> getAvailableConditions() {
+        if (itemFacetIndex.isReady()) {
+            return itemFacetIndex.getAvailableConditions();
+        }
         return itemRepository.findDistinctConditions();
     }
     
+    // Keyset pagination: seeks past the cursor instead of using OFFSET and never issues a COUNT
+    private CursorPageDto<ItemDto> scrollItems(Specification<Item> filters, String after, int size,
+                                               String sortBy, String sortDir) {
+        if (size < 1) {
+            throw new RuntimeException("Page size must be at least 1");
+        }
+        ItemSort itemSort = ItemSort.fromProperty(sortBy);
+        boolean descending = sortDir.equalsIgnoreCase("desc");
+        
+        Specification<Item> spec = filters;
+        if (after != null && !after.isBlank()) {
+            ItemCursor cursor = ItemCursor.decode(after);
+            if (!cursor.matches(itemSort, descending)) {
+                throw new RuntimeException("Cursor does not match the requested sort order");
+            }
+            spec = spec.and(ItemSpecifications.after(sortBy, cursor.getValue(), cursor.getId(), descending));
+        }
+        
+        Sort sort = itemSort.toSort(descending);
+        // Fetch one extra row to find out whether another page exists; category and seller are
+        // fetched in the same statement so converting rows does not trigger lazy loads
+        List<Item> rows = itemRepository.findBy(spec, query -> query
+            .sortBy(sort)
+            .project("category", "seller")
+            .limit(size + 1)
+            .all());
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows = rows.subList(0, size);
+        }
+        String nextCursor = hasNext ? ItemCursor.of(rows.get(size - 1), itemSort, descending).encode() : null;
+        
+        List<ItemDto> content = rows.stream().map(this::convertToDto).toList();
+        return new CursorPageDto<>(content, nextCursor, size, hasNext);
+    }
+    
+    // Facet counts from the in-memory bitmaps; null while the indexes cannot answer
+    private SearchFacetsDto computeFacets(String category, Item.Condition condition, BigDecimal minPrice,
+                                          BigDecimal maxPrice, String searchTerm, boolean fuzzy) {
+        if (!itemFacetIndex.isReady()) {
+            return null;
+        }
+        int[] textMatches = null;
+        Optional<Map<Long, Double>> similar = fuzzy && searchTerm != null
+            ? trigramIndex.search(searchTerm) : Optional.empty();
+        if (similar.isPresent()) {
+            textMatches = similar.get().keySet().stream().mapToInt(Math::toIntExact).toArray();
+        } else if (searchTerm != null) {
+            Optional<int[]> matches = itemTextIndex.matchIds(searchTerm);
+            if (matches.isEmpty()) {
+                return null;
+            }
+            textMatches = matches.get();
+        }
+        return itemFacetIndex.facets(textMatches, category, condition, minPrice, maxPrice);
+    }
+    
+    // Filters and sort run over the in-memory columns, restricted to candidates unless null, and only
+    // the requested page is loaded. Empty while the columns are not loaded or cannot serve the sort order.
+    private Optional<Page<ItemDto>> browseColumns(String category, Item.Condition condition, BigDecimal minPrice,
+                                                  BigDecimal maxPrice, RoaringBitmap candidates, Pageable pageable) {
+        return searchColumns(category, pageable, categoryId ->
+            availableItemColumns.search(categoryId, condition, minPrice, maxPrice, candidates, pageable));
+    }
+    
+    // Typo-tolerant search: the scored items are filtered over the in-memory columns and ranked by name
+    // similarity, the requested sort only breaking ties. Empty while the columns are not loaded.
+    private Optional<Page<ItemDto>> searchSimilar(String category, Item.Condition condition, BigDecimal minPrice,
+                                                  BigDecimal maxPrice, Map<Long, Double> similarity,
+                                                  Pageable pageable) {
+        return searchColumns(category, pageable, categoryId ->
+            availableItemColumns.searchRanked(categoryId, condition, minPrice, maxPrice, similarity, pageable));
+    }
+    
+    // Runs a column search with the category name resolved to its id (an unknown name matches nothing)
+    // and loads the items of the resulting page
+    private Optional<Page<ItemDto>> searchColumns(String category, Pageable pageable,
+                                                  Function<Long, Optional<Page<Long>>> search) {
+        Long categoryId = null;
+        if (category != null) {
+            CategoryDto match = categoryCatalog.getSnapshot().getByName(category);
+            if (match == null) {
+                return Optional.of(Page.empty(pageable));
+            }
+            categoryId = match.getId();
+        }
+        return search.apply(categoryId)
+            .map(ids -> new PageImpl<>(loadInOrder(ids.getContent()), pageable, ids.getTotalElements()));
+    }
+    
+    // Text search: the index postings of the term are intersected with the column filters in memory.
+    // Empty while the index or the columns are not loaded.
+    private Optional<Page<ItemDto>> searchIndexed(String category, Item.Condition condition, BigDecimal minPrice,
+                                                  BigDecimal maxPrice, String searchTerm, Pageable pageable) {
+        Optional<int[]> matches = itemTextIndex.matchIds(searchTerm);
+        if (matches.isEmpty()) {
+            return Optional.empty();
+        }
+        return browseColumns(category, condition, minPrice, maxPrice, RoaringBitmap.bitmapOf(matches.get()), pageable);
+    }
+    
+    // Loads items by id, through the detail cache, and returns them in the order of the given ids
+    private List<ItemDto> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ItemDto> itemsById = itemDetailCache.getAll(ids, missing -> itemRepository
+            .findItemDtosByIdIn(new ArrayList<>(missing)).stream()
+            .collect(Collectors.toMap(ItemDto::getId, Function.identity())));
+        return ids.stream()
+            .map(itemsById::get)
+            .filter(Objects::nonNull)
+            .toList();
+    }
+    
+    // Cursor mode: resolves a text term through the in-memory index into an id list for the keyset
+    // query; empty when the SQL LIKE query has to be used (index not loaded, or more than
+    // search.index.max-candidates matches), which matches the term as a substring instead
+    private Optional<List<Long>> matchSearchTerm(String searchTerm) {
+        if (searchTerm == null) {
+            return Optional.empty();
+        }
+        return itemTextIndex.search(searchTerm);
+    }
+    
+    // Only the whitelisted ItemSort orders reach a query
+    private Sort toSort(String sortBy, String sortDir) {
+        return ItemSort.fromProperty(sortBy).toSort(sortDir.equalsIgnoreCase("desc"));
+    }
+    
+    // Searches accept relevance when the Lucene engine is configured; where it cannot rank, the
+    // default order (newest first) applies
+    private Sort toSearchSort(String sortBy, String sortDir) {
+        if ("relevance".equals(sortBy) && luceneSearchEngine != null) {
+            return toSort("createdAt", "desc");
+        }
+        return toSort(sortBy, sortDir);
+    }
+    
+    private String blankToNull(String value) {
+        return (value == null || value.trim().isEmpty()) ? null : value;
+    }
+    
+    private Item.Condition parseCondition(String condition) {
+        String conditionFilter = blankToNull(condition);
+        if (conditionFilter == null) {
+            return null;
+        }
+        try {
+            return Item.Condition.valueOf(conditionFilter.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            // If the provided condition doesn't match enum values, ignore the filter
+            return null;
+        }
+    }
+    
     private ItemDto convertToDto(Item item) {
         return new ItemDto(
             item.getId(),
             item.getName(),
             item.getPrice(),
             item.getImageUrl(),
+            item.getImageWidth(),
+            item.getImageHeight(),
+            item.getImagePlaceholder(),
             item.getCondition(),
             item.getDescription(),
             item.getIsAvailable(),
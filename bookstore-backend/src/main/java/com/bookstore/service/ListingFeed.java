@@ -0,0 +1,308 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.ItemDto;
+import com.bookstore.dto.ListingEventDto;
+import com.bookstore.event.ItemChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Server-sent listing events for GET /api/items/stream. Each event is serialized once into a shared
+// ring; a subscriber only remembers the sequence it was last sent. Responses are written with
+// non-blocking servlet I/O: a drain writes while the connection accepts data and otherwise returns,
+// to be resumed by the container once the client has read. A slow client therefore never holds a
+// sender thread; when it falls more than buffer-size events behind it skips the oldest ones and gets
+// a "resync" event, so it does not hold memory either.
+@Component
+public class ListingFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListingFeed.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final String[] ring;
+    // Sequences continue from the startup time, so ids from before a restart are recognized as stale
+    private final long firstSequence = System.currentTimeMillis() + 1;
+    private long lastSequence = firstSequence - 1;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders;
+    private final ScheduledExecutorService heartbeats;
+    private final int maxSubscribers;
+    private final Duration timeout;
+
+    public ListingFeed(@Value("${items.stream.buffer-size:64}") int bufferSize,
+                       @Value("${items.stream.max-subscribers:10000}") int maxSubscribers,
+                       @Value("${items.stream.timeout:30m}") Duration timeout,
+                       @Value("${items.stream.heartbeat:20s}") Duration heartbeat,
+                       @Value("${items.stream.sender-threads:2}") int senderThreads) {
+        this.ring = new String[bufferSize];
+        this.maxSubscribers = maxSubscribers;
+        this.timeout = timeout;
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "listing-feed-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "listing-feed-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Comments keep proxies from closing idle streams and reveal disconnected clients
+        heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(this::close);
+    }
+
+    // Takes over the request as an asynchronous event stream. lastEventId is the Last-Event-ID header
+    // of a reconnecting EventSource, null for a new one.
+    public void subscribe(HttpServletRequest request, HttpServletResponse response, Long lastEventId)
+            throws IOException {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new RuntimeException("Too many listing subscribers");
+        }
+        response.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader("Cache-Control", "no-cache");
+        AsyncContext context = request.startAsync(request, response);
+        context.setTimeout(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(context, response.getOutputStream());
+        lock.readLock().lock();
+        try {
+            subscriber.sent = lastEventId != null && lastEventId < lastSequence ? lastEventId : lastSequence;
+        } finally {
+            lock.readLock().unlock();
+        }
+        context.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                subscribers.remove(subscriber);
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                close(subscriber);
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                close(subscriber);
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        subscribers.add(subscriber);
+        // The first write commits the response headers
+        subscriber.heartbeatDue = true;
+        // Called once the stream is writable, and again whenever a drain stopped because it was not
+        subscriber.output.setWriteListener(new WriteListener() {
+            @Override
+            public void onWritePossible() {
+                schedule(subscriber);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                close(subscriber);
+            }
+        });
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        ItemDto item = event.getItem();
+        ItemDto previous = event.getPrevious();
+        boolean listed = event.isListed();
+        boolean wasListed = previous != null && Boolean.TRUE.equals(previous.getIsAvailable());
+        switch (event.getType()) {
+            case CREATED -> {
+                if (listed) {
+                    publish(ListingEventDto.Type.CREATED, item, null);
+                }
+            }
+            case UPDATED -> {
+                if (listed && previous != null && !wasListed) {
+                    publish(ListingEventDto.Type.CREATED, item, null);
+                } else if (!listed && (wasListed || previous == null)) {
+                    publish(ListingEventDto.Type.UNAVAILABLE, item, null);
+                } else if (listed && wasListed && item.getPrice().compareTo(previous.getPrice()) != 0) {
+                    publish(ListingEventDto.Type.PRICE_CHANGED, item, previous.getPrice());
+                }
+            }
+            case DELETED -> {
+                if (Boolean.TRUE.equals(item.getIsAvailable())) {
+                    publish(ListingEventDto.Type.DELETED, item, null);
+                }
+            }
+        }
+    }
+
+    private synchronized void publish(ListingEventDto.Type type, ItemDto item, BigDecimal previousPrice) {
+        long sequence = lastSequence + 1;
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(new ListingEventDto(sequence, type, item.getId(), item.getName(),
+                item.getPrice(), previousPrice, item.getCategoryId(), LocalDateTime.now()));
+        } catch (JsonProcessingException e) {
+            logger.warn("Could not serialize listing event for item {}", item.getId(), e);
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            ring[(int) (sequence % ring.length)] = json;
+            lastSequence = sequence;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        subscribers.forEach(this::schedule);
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            schedule(subscriber);
+        }
+    }
+
+    // Wake-ups are counted, so one that arrives while a drain runs makes it go round again instead of
+    // being lost; at most one drain per subscriber is queued or running at a time
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.wakeups.getAndIncrement() == 0) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.wakeups.set(0);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        int seen = subscriber.wakeups.get();
+        while (true) {
+            try {
+                write(subscriber);
+            } catch (IOException | IllegalStateException e) {
+                // The client disconnected or the stream already completed
+                close(subscriber);
+                return;
+            }
+            int remaining = subscriber.wakeups.addAndGet(-seen);
+            if (remaining == 0) {
+                return;
+            }
+            seen = remaining;
+        }
+    }
+
+    // Writes the next events while the connection accepts them. When it does not, the container calls
+    // onWritePossible once the client has caught up, which schedules the next drain.
+    private void write(Subscriber subscriber) throws IOException {
+        ServletOutputStream output = subscriber.output;
+        while (output.isReady()) {
+            String json = null;
+            boolean dropped;
+            lock.readLock().lock();
+            try {
+                long oldest = Math.max(firstSequence, lastSequence - ring.length + 1);
+                dropped = subscriber.sent + 1 < oldest;
+                if (dropped) {
+                    subscriber.sent = oldest - 1;
+                } else if (subscriber.sent < lastSequence) {
+                    json = ring[(int) ((subscriber.sent + 1) % ring.length)];
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            String event;
+            if (dropped) {
+                // Events were lost, so the client should reload its listing
+                event = "event:resync\ndata:{}\n\n";
+            } else if (json != null) {
+                subscriber.sent++;
+                subscriber.heartbeatDue = false;
+                event = "id:" + subscriber.sent + "\ndata:" + json + "\n\n";
+            } else if (subscriber.heartbeatDue) {
+                subscriber.heartbeatDue = false;
+                event = ":keep-alive\n\n";
+            } else {
+                return;
+            }
+            output.write(event.getBytes(StandardCharsets.UTF_8));
+            if (output.isReady()) {
+                output.flush();
+            }
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            try {
+                subscriber.context.complete();
+            } catch (IllegalStateException e) {
+                // Already completed by the container
+            }
+        }
+    }
+
+    private static final class Subscriber {
+
+        private final AsyncContext context;
+        private final ServletOutputStream output;
+        // Pending wake-ups; the drain that takes it from zero runs until it is back at zero
+        private final AtomicInteger wakeups = new AtomicInteger();
+        // Sequence of the last event sent; only touched by the running drain
+        private long sent;
+        private volatile boolean heartbeatDue;
+
+        private Subscriber(AsyncContext context, ServletOutputStream output) {
+            this.context = context;
+            this.output = output;
+        }
+    }
+}
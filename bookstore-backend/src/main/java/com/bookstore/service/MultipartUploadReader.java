@@ -0,0 +1,252 @@
+package com.bookstore.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+// Reads multipart/form-data parts one after another straight from the request body, through one
+// fixed-size buffer, so a file part can be consumed while it arrives instead of being buffered by the
+// servlet container first. Only what is needed for uploads is supported: part names, file names and
+// bodies; part headers are limited to MAX_HEADER_SIZE.
+public class MultipartUploadReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_HEADER_SIZE = 8 * 1024;
+
+    private final InputStream input;
+    // CRLF--boundary; the body is read as if it started with a CRLF, so the first boundary matches too
+    private final byte[] delimiter;
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+    private boolean eof;
+    private boolean finished;
+    private PartStream current;
+
+    public MultipartUploadReader(InputStream input, String boundary) {
+        this.input = input;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        this.buffer = new byte[Math.max(BUFFER_SIZE, delimiter.length * 2)];
+        buffer[0] = '\r';
+        buffer[1] = '\n';
+        this.limit = 2;
+    }
+
+    // The boundary parameter of a multipart/form-data content type, or null
+    public static String boundary(String contentType) {
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/form-data")) {
+            return null;
+        }
+        for (String parameter : contentType.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.toLowerCase(Locale.ROOT).startsWith("boundary=")) {
+                String value = trimmed.substring(9);
+                if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                    value = value.substring(1, value.length() - 1);
+                }
+                return value.isEmpty() || value.length() > 70 ? null : value;
+            }
+        }
+        return null;
+    }
+
+    // The next part, with the rest of the previous one skipped; null after the last part
+    public Part next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        if (current == null) {
+            // Skip the preamble up to the first boundary
+            current = new PartStream();
+        }
+        current.skipRemaining();
+        // After a boundary: "--" ends the body, CRLF starts another part
+        if (!fill(2)) {
+            throw new IOException("Multipart body ended unexpectedly");
+        }
+        if (buffer[position] == '-' && buffer[position + 1] == '-') {
+            finished = true;
+            return null;
+        }
+        // Rest of the boundary line
+        readLine();
+        String disposition = null;
+        String contentType = null;
+        int headerSize = 0;
+        String line;
+        while (!(line = readLine()).isEmpty()) {
+            headerSize += line.length() + 2;
+            if (headerSize > MAX_HEADER_SIZE) {
+                throw new IOException("Multipart part headers are too large");
+            }
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String name = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).trim();
+            if (name.equals("content-disposition")) {
+                disposition = value;
+            } else if (name.equals("content-type")) {
+                contentType = value;
+            }
+        }
+        current = new PartStream();
+        return new Part(parameter(disposition, "name"), parameter(disposition, "filename"), contentType, current);
+    }
+
+    // Makes at least n unread bytes available; false when the body ends first
+    private boolean fill(int n) throws IOException {
+        if (limit - position >= n) {
+            return true;
+        }
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        while (limit < n && !eof) {
+            int read = input.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                eof = true;
+            } else {
+                limit += read;
+            }
+        }
+        return limit - position >= n;
+    }
+
+    private String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        while (true) {
+            if (!fill(1)) {
+                throw new IOException("Multipart body ended unexpectedly");
+            }
+            byte b = buffer[position++];
+            if (b == '\n') {
+                int length = line.length();
+                return length > 0 && line.charAt(length - 1) == '\r' ? line.substring(0, length - 1) : line.toString();
+            }
+            line.append((char) (b & 0xff));
+            if (line.length() > MAX_HEADER_SIZE) {
+                throw new IOException("Multipart part headers are too large");
+            }
+        }
+    }
+
+    // Index of the delimiter in the unread bytes, or -1
+    private int indexOfDelimiter() {
+        outer:
+        for (int i = position; i <= limit - delimiter.length; i++) {
+            for (int j = 0; j < delimiter.length; j++) {
+                if (buffer[i + j] != delimiter[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static String parameter(String header, String name) {
+        if (header == null) {
+            return null;
+        }
+        for (String parameter : header.split(";")) {
+            String trimmed = parameter.trim();
+            int equals = trimmed.indexOf('=');
+            if (equals > 0 && trimmed.substring(0, equals).trim().equalsIgnoreCase(name)) {
+                String value = trimmed.substring(equals + 1).trim();
+                if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                    value = value.substring(1, value.length() - 1);
+                }
+                return value;
+            }
+        }
+        return null;
+    }
+
+    public static final class Part {
+
+        private final String name;
+        private final String filename;
+        private final String contentType;
+        private final InputStream body;
+
+        private Part(String name, String filename, String contentType, InputStream body) {
+            this.name = name;
+            this.filename = filename;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        // null for form fields
+        public String getFilename() {
+            return filename;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        // Ends at the next boundary; only valid until next() is called
+        public InputStream getBody() {
+            return body;
+        }
+    }
+
+    // The bytes of one part, up to the delimiter that follows it
+    private final class PartStream extends InputStream {
+
+        private boolean done;
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            if (done) {
+                return -1;
+            }
+            if (length == 0) {
+                return 0;
+            }
+            // Enough bytes to tell whether the delimiter starts anywhere in the available data
+            fill(delimiter.length);
+            int found = indexOfDelimiter();
+            int available;
+            if (found >= 0) {
+                available = found - position;
+            } else if (eof) {
+                throw new IOException("Multipart body ended unexpectedly");
+            } else {
+                // Keep a possible partial delimiter at the end of the buffer
+                available = limit - position - (delimiter.length - 1);
+            }
+            if (available == 0 && found >= 0) {
+                position += delimiter.length;
+                done = true;
+                return -1;
+            }
+            int count = Math.min(length, available);
+            System.arraycopy(buffer, position, target, offset, count);
+            position += count;
+            return count;
+        }
+
+        private void skipRemaining() throws IOException {
+            byte[] skip = new byte[BUFFER_SIZE];
+            while (read(skip, 0, skip.length) >= 0) {
+                // Discard
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.bookstore.service;
+
+import com.bookstore.event.ItemChangedEvent;
+import com.bookstore.event.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+// Users and items written within the last datasource.replica.lag-window, i.e. rows a read replica
+// may not have caught up with yet. Tracks nothing when no replica is configured.
+@Component
+public class RecentWriteTracker {
+
+    private final Cache<Long, Boolean> writers;
+    private final Cache<Long, Boolean> items;
+
+    public RecentWriteTracker(@Value("${datasource.replica.url:}") String replicaUrl,
+                              @Value("${datasource.replica.lag-window:5s}") Duration lagWindow) {
+        if (replicaUrl.isEmpty()) {
+            lagWindow = Duration.ZERO;
+        }
+        this.writers = Caffeine.newBuilder().expireAfterWrite(lagWindow).build();
+        this.items = Caffeine.newBuilder().expireAfterWrite(lagWindow).build();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        writers.put(event.getItem().getSellerId(), Boolean.TRUE);
+        items.put(event.getItemId(), Boolean.TRUE);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        writers.put(event.getUserId(), Boolean.TRUE);
+    }
+
+    // Reads of this user are served by the primary so they see their own writes
+    public boolean isRecentWriter(Long userId) {
+        return userId != null && writers.getIfPresent(userId) != null;
+    }
+
+    // A replica read of this item may be stale, so it must not be cached
+    public boolean isRecentlyChanged(Long itemId) {
+        return items.getIfPresent(itemId) != null;
+    }
+}
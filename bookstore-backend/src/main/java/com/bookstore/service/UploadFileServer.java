@@ -0,0 +1,262 @@
+package com.bookstore.service;
+
+import com.bookstore.storage.StoredFile;
+import com.bookstore.storage.UploadStorage;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+// Writes stored uploads to the response. File metadata (size, modification time, ETag, content
+// type) comes from a bounded LRU instead of a stat per request. Larger local bodies are handed to
+// Tomcat's sendfile, so the kernel copies them to the socket; otherwise FileChannel.transferTo
+// streams them. Remote files are redirected to when the storage has a public URL, otherwise streamed
+// through. Supports a single byte range, If-Range, If-None-Match and If-Modified-Since.
+@Component
+public class UploadFileServer {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // How long a missing file is remembered, e.g. a rendition that is still being generated
+    private static final long MISSING_RECHECK_NANOS = Duration.ofSeconds(2).toNanos();
+
+    @Autowired
+    private UploadStorage uploadStorage;
+
+    private final Cache<String, FileInfo> files;
+    private final long sendfileMinSize;
+
+    public UploadFileServer(@Value("${uploads.serving.metadata-cache-size:10000}") long metadataCacheSize,
+                            @Value("${uploads.serving.metadata-ttl:1m}") Duration metadataTtl,
+                            @Value("${uploads.serving.sendfile-min-size:48KB}") DataSize sendfileMinSize) {
+        this.files = Caffeine.newBuilder()
+            .maximumSize(metadataCacheSize)
+            .expireAfterWrite(metadataTtl)
+            .build();
+        this.sendfileMinSize = sendfileMinSize.toBytes();
+    }
+
+    public boolean exists(String key) {
+        return stat(key).exists;
+    }
+
+    // Called when a file is written or deleted
+    public void invalidate(String key) {
+        files.invalidate(key);
+    }
+
+    // Returns false, with nothing written, when the file does not exist
+    public boolean serve(String key, CacheControl cacheControl, HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        FileInfo info = stat(key);
+        if (!info.exists) {
+            return false;
+        }
+        String publicUrl = uploadStorage.getPublicUrl(key);
+        if (publicUrl != null) {
+            // The bucket serves the bytes; the redirect itself can be cached as long as the file
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+            response.setHeader(HttpHeaders.LOCATION, publicUrl);
+            response.setStatus(HttpServletResponse.SC_FOUND);
+            return true;
+        }
+        response.setHeader(HttpHeaders.ETAG, info.etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, info.lastModified);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        long ifModifiedSince = ifNoneMatch == null ? request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE) : -1;
+        if (ifNoneMatch != null ? etagMatches(ifNoneMatch, info.etag)
+                : ifModifiedSince >= 0 && info.lastModified / 1000 <= ifModifiedSince / 1000) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+
+        long start = 0;
+        long end = info.size - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.trim().equals(info.etag))) {
+            long[] bounds = parseRange(range, info.size);
+            if (bounds != null && bounds[0] < 0) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + info.size);
+                return true;
+            }
+            if (bounds != null) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + info.size);
+            }
+        }
+        long length = end - start + 1;
+        response.setContentType(info.contentType);
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return true;
+        }
+
+        if (info.localPath == null) {
+            try (InputStream input = uploadStorage.open(key, start)) {
+                OutputStream out = response.getOutputStream();
+                byte[] buffer = new byte[8192];
+                long remaining = length;
+                int read;
+                while (remaining > 0 && (read = input.read(buffer, 0, (int) Math.min(buffer.length, remaining))) > 0) {
+                    out.write(buffer, 0, read);
+                    remaining -= read;
+                }
+                out.flush();
+            } catch (NoSuchFileException e) {
+                files.invalidate(key);
+            }
+            return true;
+        }
+        if (length >= sendfileMinSize && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat sends the file after the servlet returns, without copying it through the JVM
+            request.setAttribute(SENDFILE_FILENAME, info.localPath.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return true;
+        }
+        try (FileChannel channel = FileChannel.open(info.localPath, StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            while (position <= end) {
+                long sent = channel.transferTo(position, end + 1 - position, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+            out.flush();
+        } catch (NoSuchFileException e) {
+            // Deleted after its metadata was cached; the headers are already set, so just end the response
+            files.invalidate(key);
+        }
+        return true;
+    }
+
+    private FileInfo stat(String key) {
+        FileInfo info = files.getIfPresent(key);
+        if (info != null && (info.exists || System.nanoTime() - info.checkedAt < MISSING_RECHECK_NANOS)) {
+            return info;
+        }
+        try {
+            StoredFile file = uploadStorage.stat(key);
+            info = file != null ? new FileInfo(file.getSize(), file.getLastModified(), etag(key, file.getSize(),
+                file.getLastModified()), MediaTypeFactory.getMediaType(key)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString(), file.getLocalPath()) : FileInfo.missing();
+        } catch (IOException | IllegalArgumentException e) {
+            info = FileInfo.missing();
+        }
+        files.put(key, info);
+        return info;
+    }
+
+    // Content-addressed files are tagged by their hash, anything else by size and modification time
+    private static String etag(String filename, long size, long lastModified) {
+        if (UploadStorageService.isContentAddressed(filename)) {
+            int dot = filename.lastIndexOf('.');
+            return "\"" + (dot >= 0 ? filename.substring(0, dot) : filename) + "\"";
+        }
+        return "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    private static boolean etagMatches(String header, String etag) {
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || (value.startsWith("W/") ? value.substring(2) : value).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // {start, end} of a single range; {-1, -1} when it lies outside the file; null when the header is
+    // malformed or asks for several ranges, in which case the whole file is sent
+    private static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // Suffix range: the last n bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || size == 0) {
+                    return new long[] {-1, -1};
+                }
+                return new long[] {Math.max(0, size - suffix), size - 1};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            if (start >= size) {
+                return new long[] {-1, -1};
+            }
+            return start <= end ? new long[] {start, end} : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static final class FileInfo {
+
+        private final boolean exists;
+        private final long size;
+        private final long lastModified;
+        private final String etag;
+        private final String contentType;
+        private final Path localPath;
+        private final long checkedAt = System.nanoTime();
+
+        private FileInfo(long size, long lastModified, String etag, String contentType, Path localPath) {
+            this(true, size, lastModified, etag, contentType, localPath);
+        }
+
+        private FileInfo(boolean exists, long size, long lastModified, String etag, String contentType,
+                         Path localPath) {
+            this.exists = exists;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.etag = etag;
+            this.contentType = contentType;
+            this.localPath = localPath;
+        }
+
+        private static FileInfo missing() {
+            return new FileInfo(false, 0, 0, null, null, null);
+        }
+    }
+}
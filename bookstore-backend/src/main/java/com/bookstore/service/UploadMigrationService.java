@@ -0,0 +1,159 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.UploadMigrationResultDto;
+import com.bookstore.event.ItemImagesMovedEvent;
+import com.bookstore.repository.ItemBatchRepository;
+import com.bookstore.storage.UploadStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+// Moves files from the flat uploads directory of older versions into the configured storage.
+// Content-addressed files keep their key. Older uploads, named by a random UUID, are stored under
+// their content hash; the items using them are repointed in batches, one transaction per batch, and
+// the old files and their renditions are deleted once the batch has committed.
+@Service
+public class UploadMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadMigrationService.class);
+
+    // Renditions of UUID-named uploads; they are generated again under the new key
+    private static final Pattern LEGACY_RENDITION = Pattern.compile("[0-9a-f-]{36}-\\d+\\.(jpg|png)");
+
+    @Autowired
+    private UploadStorage uploadStorage;
+
+    @Autowired
+    private UploadStorageService uploadStorageService;
+
+    @Autowired
+    private UploadFileServer uploadFileServer;
+
+    @Autowired
+    private ItemBatchRepository itemBatchRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+    private final Path flatDirectory;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${uploads.migration.batch-size:500}")
+    private int batchSize;
+
+    public UploadMigrationService(PlatformTransactionManager transactionManager,
+                                  @Value("${uploads.local.directory:${user.dir}/uploads}") String directory) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flatDirectory = Paths.get(directory).toAbsolutePath().normalize();
+    }
+
+    public UploadMigrationResultDto migrate() {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("An upload migration is already running");
+        }
+        try {
+            UploadMigrationResultDto result = new UploadMigrationResultDto();
+            if (!Files.isDirectory(flatDirectory)) {
+                return result;
+            }
+            List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(flatDirectory)) {
+                for (Path path : entries) {
+                    String name = path.getFileName().toString();
+                    if (!name.startsWith(".") && Files.isRegularFile(path) && !LEGACY_RENDITION.matcher(name).matches()) {
+                        files.add(path);
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Could not list " + flatDirectory + ": " + e.getMessage());
+            }
+
+            Map<String, String> renamed = new LinkedHashMap<>();
+            for (Path path : files) {
+                String name = path.getFileName().toString();
+                try {
+                    if (UploadStorageService.isContentAddressed(name)) {
+                        uploadStorage.store(name, path);
+                        uploadFileServer.invalidate(name);
+                        result.setMoved(result.getMoved() + 1);
+                        continue;
+                    }
+                    String url;
+                    try (InputStream input = Files.newInputStream(path)) {
+                        url = uploadStorageService.store(input, Files.size(path));
+                    }
+                    renamed.put(UploadStorageService.URL_PREFIX + name, url);
+                    result.setRenamed(result.getRenamed() + 1);
+                    if (renamed.size() >= batchSize) {
+                        commitBatch(renamed, result);
+                        renamed = new LinkedHashMap<>();
+                    }
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Could not migrate upload {}", name, e);
+                    result.setFailed(result.getFailed() + 1);
+                    result.getErrors().add(name + ": " + e.getMessage());
+                }
+            }
+            commitBatch(renamed, result);
+            logger.info("Upload migration moved {} files, renamed {}, updated {} items, {} failed",
+                result.getMoved(), result.getRenamed(), result.getItemsUpdated(), result.getFailed());
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // The old files stay until the items pointing at them have been updated
+    private void commitBatch(Map<String, String> renamed, UploadMigrationResultDto result) {
+        if (renamed.isEmpty()) {
+            return;
+        }
+        Integer updated = transactionTemplate.execute(status -> {
+            int count = itemBatchRepository.updateImageUrls(renamed);
+            eventPublisher.publishEvent(new ItemImagesMovedEvent(Map.copyOf(renamed)));
+            return count;
+        });
+        result.setItemsUpdated(result.getItemsUpdated() + (updated != null ? updated : 0));
+        for (String url : renamed.keySet()) {
+            String name = url.substring(UploadStorageService.URL_PREFIX.length());
+            try {
+                deleteLegacy(name);
+            } catch (IOException e) {
+                logger.warn("Could not delete migrated upload {}", name, e);
+            }
+        }
+    }
+
+    private void deleteLegacy(String name) throws IOException {
+        Files.deleteIfExists(flatDirectory.resolve(name));
+        uploadFileServer.invalidate(name);
+        int dot = name.lastIndexOf('.');
+        String base = dot >= 0 ? name.substring(0, dot) : name;
+        for (ImageRenditionService.Rendition rendition : ImageRenditionService.Rendition.values()) {
+            for (String extension : new String[] {".jpg", ".png"}) {
+                String rendered = base + "-" + rendition.getWidth() + extension;
+                Files.deleteIfExists(flatDirectory.resolve(rendered));
+                uploadFileServer.invalidate(rendered);
+            }
+        }
+    }
+}
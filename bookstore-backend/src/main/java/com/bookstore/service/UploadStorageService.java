@@ -0,0 +1,296 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.ItemDto;
+import com.bookstore.event.ItemChangedEvent;
+import com.bookstore.exception.UploadRejectedException;
+import com.bookstore.repository.ItemRepository;
+import com.bookstore.storage.StoredFile;
+import com.bookstore.storage.UploadStorage;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Content-addressed image uploads: a file is named by the SHA-256 of its bytes, computed while it
+// is copied, so the same image uploaded twice is stored once under one URL that never changes.
+// Files are referenced by Item.imageUrl; one that no item references is deleted once it is older
+// than the grace period, which leaves time to create the item after uploading its image.
+@Service
+public class UploadStorageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadStorageService.class);
+
+    public static final String URL_PREFIX = "/uploads/";
+
+    // Copy buffer, and the number of leading bytes read to recognise the image format
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int SNIFF_LENGTH = 12;
+
+    // <sha-256>.<ext> for originals, <sha-256>-<width>.<ext> for their renditions
+    private static final Pattern STORED_NAME = Pattern.compile("([0-9a-f]{64})(-\\d+)?(\\.[a-z0-9]+)?");
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ImageRenditionService imageRenditionService;
+
+    @Autowired
+    private UploadFileServer uploadFileServer;
+
+    @Autowired
+    private ImagePlaceholderService imagePlaceholderService;
+
+    @Autowired
+    private UploadStorage uploadStorage;
+
+    @Value("${uploads.max-size:10MB}")
+    private DataSize maxSize;
+
+    private final Duration gracePeriod;
+    private final ScheduledExecutorService sweeper;
+    // Guards the exists/touch of a duplicate upload against a concurrent delete of the same file
+    private final Object lock = new Object();
+
+    public UploadStorageService(@Value("${uploads.cleanup.grace-period:1h}") Duration gracePeriod,
+                                @Value("${uploads.cleanup.interval:1h}") Duration interval) {
+        this.gracePeriod = gracePeriod;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "upload-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    // Returns the URL of the stored file; a duplicate of an existing file gets the existing URL.
+    // contentLength is the declared size, or -1 when unknown; a body over uploads.max-size is refused
+    // before it is read, or as soon as it grows past the limit, and anything that does not start like
+    // a JPEG, PNG, GIF or WebP image is refused after its first bytes. The body is hashed while it is
+    // copied through one fixed buffer into the storage's temp directory.
+    public String store(InputStream input, long contentLength) throws IOException {
+        if (contentLength > maxSize.toBytes()) {
+            throw tooLarge();
+        }
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int head = input.readNBytes(buffer, 0, SNIFF_LENGTH);
+        if (head == 0) {
+            throw new RuntimeException("File is empty");
+        }
+        String extension = sniffExtension(buffer, head);
+        if (extension == null) {
+            throw new UploadRejectedException(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                "Only JPEG, PNG, GIF and WebP images can be uploaded");
+        }
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        Path temp = uploadStorage.getTempDirectory().resolve(".upload-" + UUID.randomUUID() + ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp, StandardOpenOption.CREATE_NEW)) {
+                long total = 0;
+                int read = head;
+                do {
+                    total += read;
+                    if (total > maxSize.toBytes()) {
+                        throw tooLarge();
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                } while ((read = input.read(buffer)) >= 0);
+            }
+            String key = HexFormat.of().formatHex(digest.digest()) + extension;
+            synchronized (lock) {
+                if (uploadStorage.stat(key) != null) {
+                    // Restart the grace period, so the file outlives a concurrent release
+                    uploadStorage.touch(key);
+                    logger.debug("Upload is a duplicate of {}", key);
+                    imagePlaceholderService.submit(URL_PREFIX + key);
+                    return URL_PREFIX + key;
+                }
+                uploadStorage.store(key, temp);
+            }
+            uploadFileServer.invalidate(key);
+            imageRenditionService.submit(key);
+            imagePlaceholderService.submit(URL_PREFIX + key);
+            return URL_PREFIX + key;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    // True for originals and renditions named by content hash
+    public static boolean isContentAddressed(String key) {
+        return STORED_NAME.matcher(key).matches();
+    }
+
+    public long getReferenceCount(String url) {
+        return itemRepository.countByImageUrl(url);
+    }
+
+    // Releases the image an item no longer uses
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        ItemDto released = switch (event.getType()) {
+            case CREATED -> null;
+            case UPDATED -> event.getPrevious() != null
+                && !event.getPrevious().getImageUrl().equals(event.getItem().getImageUrl()) ? event.getPrevious() : null;
+            case DELETED -> event.getItem();
+        };
+        if (released != null && released.getImageUrl().startsWith(URL_PREFIX)) {
+            try {
+                deleteIfUnreferenced(released.getImageUrl().substring(URL_PREFIX.length()));
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not release upload {}", released.getImageUrl(), e);
+            }
+        }
+    }
+
+    private boolean deleteIfUnreferenced(String key) throws IOException {
+        Matcher matcher = STORED_NAME.matcher(key);
+        if (!matcher.matches() || matcher.group(2) != null) {
+            // Only content-addressed originals are managed; older uploads are left alone
+            return false;
+        }
+        synchronized (lock) {
+            StoredFile file = uploadStorage.stat(key);
+            if (file == null || isWithinGracePeriod(file) || getReferenceCount(URL_PREFIX + key) > 0) {
+                return false;
+            }
+            uploadStorage.delete(key);
+        }
+        uploadFileServer.invalidate(key);
+        imageRenditionService.deleteRenditions(key);
+        logger.info("Deleted unreferenced upload {}", key);
+        return true;
+    }
+
+    // Deletes uploads that were never attached to an item, renditions left without an original and
+    // abandoned temp files
+    private void sweep() {
+        try {
+            Set<String> referenced = new HashSet<>(itemRepository.findImageUrlsStartingWith(URL_PREFIX));
+            List<StoredFile> originals = new ArrayList<>();
+            List<StoredFile> renditions = new ArrayList<>();
+            uploadStorage.forEach(file -> {
+                Matcher matcher = STORED_NAME.matcher(file.getKey());
+                if (matcher.matches()) {
+                    (matcher.group(2) != null ? renditions : originals).add(file);
+                }
+            });
+
+            int deleted = 0;
+            Set<String> kept = new HashSet<>();
+            for (StoredFile file : originals) {
+                if (!referenced.contains(URL_PREFIX + file.getKey()) && deleteIfUnreferenced(file.getKey())) {
+                    deleted++;
+                } else {
+                    kept.add(file.getKey().substring(0, 64));
+                }
+            }
+            for (StoredFile file : renditions) {
+                // Renditions of originals deleted above are already gone
+                if (!kept.contains(file.getKey().substring(0, 64)) && !isWithinGracePeriod(file)
+                        && uploadStorage.stat(file.getKey()) != null) {
+                    uploadStorage.delete(file.getKey());
+                    uploadFileServer.invalidate(file.getKey());
+                    deleted++;
+                }
+            }
+            try (DirectoryStream<Path> temps = Files.newDirectoryStream(uploadStorage.getTempDirectory())) {
+                for (Path temp : temps) {
+                    if (Files.getLastModifiedTime(temp).toInstant().isBefore(Instant.now().minus(gracePeriod))
+                            && Files.deleteIfExists(temp)) {
+                        deleted++;
+                    }
+                }
+            }
+            if (deleted > 0) {
+                logger.info("Upload sweep deleted {} files", deleted);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Upload sweep failed", e);
+        }
+    }
+
+    private boolean isWithinGracePeriod(StoredFile file) {
+        return Instant.ofEpochMilli(file.getLastModified()).isAfter(Instant.now().minus(gracePeriod));
+    }
+
+    private UploadRejectedException tooLarge() {
+        return new UploadRejectedException(HttpStatus.PAYLOAD_TOO_LARGE,
+            "File exceeds the maximum size of " + maxSize);
+    }
+
+    // The extension for the image format given by the magic bytes at the start of the file, or null.
+    // The format is taken from the content rather than the client's file name or content type.
+    private static String sniffExtension(byte[] head, int length) {
+        if (startsWith(head, length, 0xFF, 0xD8, 0xFF)) {
+            return ".jpg";
+        }
+        if (startsWith(head, length, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return ".png";
+        }
+        if (startsWith(head, length, 'G', 'I', 'F', '8') && length >= 6 && (head[4] == '7' || head[4] == '9') && head[5] == 'a') {
+            return ".gif";
+        }
+        if (startsWith(head, length, 'R', 'I', 'F', 'F') && length >= 12
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return ".webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] head, int length, int... magic) {
+        if (length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if ((head[i] & 0xff) != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,164 @@
+package com.bookstore.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Files under uploads.local.directory, sharded two levels deep: <key> is kept at ab/cd/<key>. Keys
+// starting with four hex digits (content hashes, UUIDs) are sharded by those, so a rendition sits next
+// to its original; other keys by the SHA-256 of the key. Files still in the flat layout of older
+// versions are found in the root directory until the upload migration moves them.
+@Component
+@ConditionalOnProperty(name = "uploads.storage", havingValue = "local", matchIfMissing = true)
+public class LocalUploadStorage implements UploadStorage {
+
+    private static final String TEMP_DIRECTORY = ".tmp";
+
+    private final Path root;
+
+    public LocalUploadStorage(@Value("${uploads.local.directory:${user.dir}/uploads}") String directory) {
+        this.root = Paths.get(directory).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public Path getTempDirectory() throws IOException {
+        return Files.createDirectories(root.resolve(TEMP_DIRECTORY));
+    }
+
+    @Override
+    public void store(String key, Path source) throws IOException {
+        Path target = shardedPath(key);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Source on another file system: copy next to the target, then rename into place
+            Path temp = target.resolveSibling("." + key + ".tmp");
+            try {
+                Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.delete(source);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        Files.deleteIfExists(flatPath(key));
+    }
+
+    @Override
+    public StoredFile stat(String key) throws IOException {
+        for (Path path : new Path[] {shardedPath(key), flatPath(key)}) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                if (attributes.isRegularFile()) {
+                    return new StoredFile(key, attributes.size(), attributes.lastModifiedTime().toMillis(), path);
+                }
+            } catch (NoSuchFileException e) {
+                // Not in this layout
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public InputStream open(String key, long offset) throws IOException {
+        StoredFile file = stat(key);
+        if (file == null) {
+            throw new NoSuchFileException(key);
+        }
+        InputStream input = Files.newInputStream(file.getLocalPath());
+        input.skipNBytes(offset);
+        return input;
+    }
+
+    @Override
+    public void touch(String key) throws IOException {
+        StoredFile file = stat(key);
+        if (file != null) {
+            Files.setLastModifiedTime(file.getLocalPath(), FileTime.from(Instant.now()));
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(shardedPath(key));
+        Files.deleteIfExists(flatPath(key));
+    }
+
+    @Override
+    public void forEach(Consumer<StoredFile> action) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        // Shard directories are two levels deep; depth 1 also finds flat files of the old layout
+        try (Stream<Path> paths = Files.walk(root, 3)) {
+            paths.filter(path -> !path.equals(root) && !path.getFileName().toString().startsWith("."))
+                .filter(path -> !root.relativize(path).startsWith(TEMP_DIRECTORY))
+                .forEach(path -> {
+                    try {
+                        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                        if (attributes.isRegularFile()) {
+                            action.accept(new StoredFile(path.getFileName().toString(), attributes.size(),
+                                attributes.lastModifiedTime().toMillis(), path));
+                        }
+                    } catch (IOException e) {
+                        // Deleted while walking
+                    }
+                });
+        }
+    }
+
+    @Override
+    public String getPublicUrl(String key) {
+        return null;
+    }
+
+    private Path shardedPath(String key) {
+        String shard = shard(checkKey(key));
+        return root.resolve(shard.substring(0, 2)).resolve(shard.substring(2, 4)).resolve(key);
+    }
+
+    private Path flatPath(String key) {
+        return root.resolve(checkKey(key));
+    }
+
+    private static String shard(String key) {
+        String prefix = key.length() >= 4 ? key.substring(0, 4).toLowerCase(Locale.ROOT) : "";
+        if (prefix.matches("[0-9a-f]{4}")) {
+            return prefix;
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 2);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Keys are single file names; anything that could leave the directory is rejected
+    private static String checkKey(String key) {
+        if (key == null || key.isEmpty() || key.startsWith(".") || key.indexOf('/') >= 0 || key.indexOf('\\') >= 0) {
+            throw new IllegalArgumentException("Invalid upload key: " + key);
+        }
+        return key;
+    }
+}
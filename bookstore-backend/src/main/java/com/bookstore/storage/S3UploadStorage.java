@@ -0,0 +1,301 @@
+package com.bookstore.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+// Files in an S3-compatible bucket (AWS S3, MinIO, Ceph, R2 ...) under uploads.s3.prefix, enabled with
+// uploads.storage=s3. Requests use path-style URLs and Signature Version 4 over the JDK HTTP client,
+// so no SDK is needed and a local MinIO container can stand in for S3. With uploads.s3.public-url
+// set, /uploads/<key> redirects there (e.g. a CDN in front of the bucket) instead of proxying.
+@Component
+@ConditionalOnProperty(name = "uploads.storage", havingValue = "s3")
+public class S3UploadStorage implements UploadStorage {
+
+    private static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(10))
+        .build();
+
+    private final URI endpoint;
+    private final String region;
+    private final String bucket;
+    private final String accessKey;
+    private final String secretKey;
+    private final String prefix;
+    private final String publicUrl;
+
+    public S3UploadStorage(@Value("${uploads.s3.endpoint}") String endpoint,
+                           @Value("${uploads.s3.region:us-east-1}") String region,
+                           @Value("${uploads.s3.bucket}") String bucket,
+                           @Value("${uploads.s3.access-key}") String accessKey,
+                           @Value("${uploads.s3.secret-key}") String secretKey,
+                           @Value("${uploads.s3.prefix:uploads/}") String prefix,
+                           @Value("${uploads.s3.public-url:}") String publicUrl) {
+        this.endpoint = URI.create(endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint);
+        this.region = region;
+        this.bucket = bucket;
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.prefix = prefix;
+        this.publicUrl = publicUrl.endsWith("/") ? publicUrl.substring(0, publicUrl.length() - 1) : publicUrl;
+    }
+
+    @Override
+    public Path getTempDirectory() throws IOException {
+        return Files.createDirectories(Paths.get(System.getProperty("java.io.tmpdir"), "bookstore-uploads"));
+    }
+
+    @Override
+    public void store(String key, Path source) throws IOException {
+        String contentType = MediaTypeFactory.getMediaType(key).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+        HttpResponse<String> response = send("PUT", objectPath(key), Map.of(), Map.of("content-type", contentType),
+            HttpRequest.BodyPublishers.ofFile(source), HttpResponse.BodyHandlers.ofString());
+        check(response, "PUT " + key);
+        Files.delete(source);
+    }
+
+    @Override
+    public StoredFile stat(String key) throws IOException {
+        HttpResponse<Void> response = send("HEAD", objectPath(key), Map.of(), Map.of(),
+            HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 404) {
+            return null;
+        }
+        check(response, "HEAD " + key);
+        long size = response.headers().firstValueAsLong("content-length").orElse(0);
+        long lastModified = response.headers().firstValue("last-modified")
+            .map(value -> ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli())
+            .orElse(0L);
+        return new StoredFile(key, size, lastModified, null);
+    }
+
+    @Override
+    public InputStream open(String key, long offset) throws IOException {
+        Map<String, String> headers = offset > 0 ? Map.of("range", "bytes=" + offset + "-") : Map.of();
+        HttpResponse<InputStream> response = send("GET", objectPath(key), Map.of(), headers,
+            HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() >= 300) {
+            response.body().close();
+            if (response.statusCode() == 404) {
+                throw new NoSuchFileException(key);
+            }
+            throw new IOException("S3 GET " + key + " failed with status " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    // S3 cannot set a modification time, so the object is copied onto itself
+    @Override
+    public void touch(String key) throws IOException {
+        HttpResponse<String> response = send("PUT", objectPath(key), Map.of(), Map.of(
+                "x-amz-copy-source", encode(bucket + "/" + prefix + key, false),
+                "x-amz-metadata-directive", "REPLACE",
+                "content-type", MediaTypeFactory.getMediaType(key).orElse(MediaType.APPLICATION_OCTET_STREAM).toString()),
+            HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.ofString());
+        check(response, "COPY " + key);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        HttpResponse<String> response = send("DELETE", objectPath(key), Map.of(), Map.of(),
+            HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 404) {
+            check(response, "DELETE " + key);
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<StoredFile> action) throws IOException {
+        String continuationToken = null;
+        do {
+            Map<String, String> query = new TreeMap<>();
+            query.put("list-type", "2");
+            query.put("prefix", prefix);
+            if (continuationToken != null) {
+                query.put("continuation-token", continuationToken);
+            }
+            HttpResponse<InputStream> response = send("GET", "/" + bucket, query, Map.of(),
+                HttpRequest.BodyPublishers.noBody(), HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                if (response.statusCode() >= 300) {
+                    throw new IOException("S3 list of " + bucket + " failed with status " + response.statusCode());
+                }
+                Document document = parse(body);
+                NodeList contents = document.getElementsByTagName("Contents");
+                for (int i = 0; i < contents.getLength(); i++) {
+                    Element object = (Element) contents.item(i);
+                    String objectKey = text(object, "Key");
+                    String key = objectKey.substring(prefix.length());
+                    if (!key.isEmpty() && key.indexOf('/') < 0) {
+                        action.accept(new StoredFile(key, Long.parseLong(text(object, "Size")),
+                            Instant.parse(text(object, "LastModified")).toEpochMilli(), null));
+                    }
+                }
+                continuationToken = "true".equals(text(document.getDocumentElement(), "IsTruncated"))
+                    ? text(document.getDocumentElement(), "NextContinuationToken") : null;
+            }
+        } while (continuationToken != null);
+    }
+
+    // public-url is the base of the bucket; the object's full key, prefix included, is appended
+    @Override
+    public String getPublicUrl(String key) {
+        return publicUrl.isEmpty() ? null : publicUrl + "/" + encode(prefix + key, false);
+    }
+
+    private String objectPath(String key) {
+        if (key == null || key.isEmpty() || key.startsWith(".") || key.indexOf('/') >= 0 || key.indexOf('\\') >= 0) {
+            throw new IllegalArgumentException("Invalid upload key: " + key);
+        }
+        return "/" + bucket + "/" + prefix + key;
+    }
+
+    private <T> HttpResponse<T> send(String method, String path, Map<String, String> query, Map<String, String> headers,
+                                     HttpRequest.BodyPublisher body, HttpResponse.BodyHandler<T> handler) throws IOException {
+        String canonicalPath = encode(endpoint.getRawPath() + path, false);
+        String canonicalQuery = query.entrySet().stream()
+            .map(entry -> encode(entry.getKey(), true) + "=" + encode(entry.getValue(), true))
+            .sorted()
+            .collect(Collectors.joining("&"));
+        URI uri = URI.create(endpoint.getScheme() + "://" + endpoint.getRawAuthority() + canonicalPath
+            + (canonicalQuery.isEmpty() ? "" : "?" + canonicalQuery));
+
+        String amzDate = AMZ_DATE.format(ZonedDateTime.now(ZoneOffset.UTC));
+        Map<String, String> signed = new TreeMap<>(headers);
+        signed.put("host", hostHeader());
+        signed.put("x-amz-content-sha256", UNSIGNED_PAYLOAD);
+        signed.put("x-amz-date", amzDate);
+        String signedHeaders = String.join(";", signed.keySet());
+        String canonicalRequest = method + "\n" + canonicalPath + "\n" + canonicalQuery + "\n"
+            + signed.entrySet().stream().map(entry -> entry.getKey() + ":" + entry.getValue().trim() + "\n")
+                .collect(Collectors.joining())
+            + "\n" + signedHeaders + "\n" + UNSIGNED_PAYLOAD;
+        String scope = amzDate.substring(0, 8) + "/" + region + "/s3/aws4_request";
+        String stringToSign = "AWS4-HMAC-SHA256\n" + amzDate + "\n" + scope + "\n" + sha256Hex(canonicalRequest);
+        byte[] signingKey = hmac(hmac(hmac(hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8),
+            amzDate.substring(0, 8)), region), "s3"), "aws4_request");
+        String signature = HexFormat.of().formatHex(hmac(signingKey, stringToSign));
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+            .timeout(Duration.ofMinutes(5))
+            .method(method, body)
+            .header("Authorization", "AWS4-HMAC-SHA256 Credential=" + accessKey + "/" + scope
+                + ", SignedHeaders=" + signedHeaders + ", Signature=" + signature);
+        // The client sets Host itself
+        signed.forEach((name, value) -> {
+            if (!name.equals("host")) {
+                request.header(name, value);
+            }
+        });
+        try {
+            return client.send(request.build(), handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted during S3 " + method + " " + path, e);
+        }
+    }
+
+    // The Host header the JDK client sends: the port is left out when it is the scheme's default
+    private String hostHeader() {
+        int port = endpoint.getPort();
+        boolean defaultPort = port == -1 || (port == 443 && endpoint.getScheme().equals("https"))
+            || (port == 80 && endpoint.getScheme().equals("http"));
+        return defaultPort ? endpoint.getHost() : endpoint.getHost() + ":" + port;
+    }
+
+    private static void check(HttpResponse<?> response, String operation) throws IOException {
+        if (response.statusCode() >= 300) {
+            Object body = response.body();
+            throw new IOException("S3 " + operation + " failed with status " + response.statusCode()
+                + (body instanceof String text && !text.isEmpty() ? ": " + text : ""));
+        }
+    }
+
+    private static Document parse(InputStream body) throws IOException {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return factory.newDocumentBuilder().parse(body);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Unreadable S3 list response", e);
+        }
+    }
+
+    private static String text(Element parent, String tag) {
+        NodeList nodes = parent.getElementsByTagName(tag);
+        return nodes.getLength() == 0 ? null : nodes.item(0).getTextContent();
+    }
+
+    // RFC 3986 encoding as SigV4 expects; slashes are kept in paths
+    private static String encode(String value, boolean encodeSlash) {
+        StringBuilder encoded = new StringBuilder();
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xff);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~' || (c == '/' && !encodeSlash)) {
+                encoded.append(c);
+            } else {
+                encoded.append('%').append(String.format("%02X", b & 0xff));
+            }
+        }
+        return encoded.toString();
+    }
+
+    private static String sha256Hex(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] hmac(byte[] key, String value) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(value.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.bookstore.storage;
+
+import java.nio.file.Path;
+
+public class StoredFile {
+
+    private final String key;
+    private final long size;
+    private final long lastModified;
+    // Set when the file is on the local disk and can be sent with sendfile
+    private final Path localPath;
+
+    public StoredFile(String key, long size, long lastModified, Path localPath) {
+        this.key = key;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.localPath = localPath;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public Path getLocalPath() {
+        return localPath;
+    }
+}
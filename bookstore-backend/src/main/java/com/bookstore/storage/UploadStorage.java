@@ -0,0 +1,35 @@
+package com.bookstore.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+// Where uploaded images and their renditions are kept. Keys are flat file names such as
+// <sha-256>.jpg and <sha-256>-320.jpg, served as /uploads/<key>; how they are laid out is up to the
+// implementation. Chosen with uploads.storage: local (default) or s3.
+public interface UploadStorage {
+
+    // Local directory for files being received or generated before they are stored
+    Path getTempDirectory() throws IOException;
+
+    // Stores a finished local file under key, replacing any file already there; source is consumed
+    void store(String key, Path source) throws IOException;
+
+    // null when nothing is stored under key
+    StoredFile stat(String key) throws IOException;
+
+    // Reads the file from offset to its end
+    InputStream open(String key, long offset) throws IOException;
+
+    // Marks the file as just written, which restarts its cleanup grace period
+    void touch(String key) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    // Visits every stored file, in no particular order
+    void forEach(Consumer<StoredFile> action) throws IOException;
+
+    // URL clients are redirected to instead of reading through the application, or null
+    String getPublicUrl(String key);
+}
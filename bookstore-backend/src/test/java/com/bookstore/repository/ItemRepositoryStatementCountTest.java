@@ -0,0 +1,120 @@
+package com.bookstore.repository;
+
+import com.bookstore.dto.ItemDto;
+import com.bookstore.entity.Category;
+import com.bookstore.entity.Item;
+import com.bookstore.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The ItemDto listing queries join category and seller in, so a page costs the same number of
+// statements however many rows it holds; lazy loads per row would make the count grow with the size.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ItemRepositoryStatementCountTest {
+
+    private static final int[] PAGE_SIZES = {1, 12, 50};
+    private static final int ITEM_COUNT = 60;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User seller;
+    private final List<Long> itemIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            categories.add(entityManager.persist(new Category("Category " + i, "Test category " + i)));
+        }
+        List<User> sellers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            sellers.add(entityManager.persist(new User("Seller " + i, "seller" + i + "@example.com", "password")));
+        }
+        seller = sellers.get(0);
+        // The first seller gets more items than the largest page holds, the rest are spread out
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            User owner = i <= PAGE_SIZES[PAGE_SIZES.length - 1] ? seller : sellers.get(i % sellers.size());
+            Item item = entityManager.persist(new Item("Book " + i, BigDecimal.valueOf(100 + i),
+                "https://example.com/" + i + ".jpg", Item.Condition.GOOD, "A used book",
+                categories.get(i % categories.size()), owner));
+            itemIds.add(item.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void availableItemsPageUsesTheSameStatementsForEveryPageSize() {
+        assertConstantStatements(size -> itemRepository.findAvailableItemDtos(page(size)));
+    }
+
+    @Test
+    void filteredPageUsesTheSameStatementsForEveryPageSize() {
+        assertConstantStatements(size -> itemRepository.findItemDtosWithFilters(
+            null, Item.Condition.GOOD, BigDecimal.ZERO, null, "book", page(size)));
+    }
+
+    @Test
+    void sellerPageUsesTheSameStatementsForEveryPageSize() {
+        assertConstantStatements(size -> itemRepository.findItemDtosBySellerId(seller.getId(), page(size)));
+    }
+
+    @Test
+    void itemsByIdUseTheSameStatementsForEveryPageSize() {
+        assertConstantStatements(size -> {
+            List<ItemDto> items = itemRepository.findItemDtosByIdIn(itemIds.subList(0, size));
+            assertThat(items).hasSize(size);
+            assertThat(itemRepository.findItemDtoById(itemIds.get(size - 1))).isPresent();
+            return null;
+        });
+    }
+
+    private void assertConstantStatements(IntFunction<Page<ItemDto>> listing) {
+        List<Long> counts = new ArrayList<>();
+        for (int size : PAGE_SIZES) {
+            entityManager.clear();
+            statistics.clear();
+            Page<ItemDto> page = listing.apply(size);
+            if (page != null) {
+                assertThat(page.getContent()).hasSize(size);
+                // Joined columns are filled in without touching the associations
+                assertThat(page.getContent()).allSatisfy(item -> {
+                    assertThat(item.getCategoryName()).isNotNull();
+                    assertThat(item.getSellerName()).isNotNull();
+                });
+            }
+            counts.add(statistics.getPrepareStatementCount());
+        }
+        assertThat(counts).as("statements per page size %s", Arrays.toString(PAGE_SIZES)).containsOnly(counts.get(0));
+    }
+
+    private static Pageable page(int size) {
+        return PageRequest.of(0, size, ItemSort.CREATED_AT.toSort(true));
+    }
+}